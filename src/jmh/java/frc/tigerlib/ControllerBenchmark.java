@@ -0,0 +1,48 @@
+package frc.tigerlib;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Cost of reading deadzoned stick values from {@link XboxControllerIT}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControllerBenchmark {
+    private XboxControllerIT controller;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        DriverStationSim.setJoystickAxisCount(0, 6);
+        DriverStationSim.setJoystickAxis(0, XboxController.Axis.kLeftX.value, 0.5);
+        DriverStationSim.setJoystickAxis(0, XboxController.Axis.kLeftY.value, -0.75);
+        DriverStationSim.setJoystickAxis(0, XboxController.Axis.kRightX.value, 0.02);
+        DriverStationSim.setJoystickAxis(0, XboxController.Axis.kRightY.value, 0.3);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        controller = new XboxControllerIT(0);
+    }
+
+    @Benchmark
+    public double leftX() {
+        return controller.getLeftX();
+    }
+
+    /** The reads made by a mecanum joystick drive command each cycle. */
+    @Benchmark
+    public double mecanumDriveInputs() {
+        return controller.getLeftY() + controller.getLeftX() + controller.getRightX();
+    }
+}
@@ -0,0 +1,77 @@
+package frc.tigerlib.interpolable;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reader latency of {@link ConcurrentTimeInterpolatingBuffer} with and without
+ * a writer thread adding samples as fast as it can. The writer runs far faster
+ * than a real odometry or vision thread, so this is the worst case for reader
+ * retries.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConcurrentBufferBenchmark {
+    private static final int CAPACITY = 1000;
+    private static final double PERIOD = 0.005;
+
+    private ConcurrentTimeInterpolatingBuffer buffer;
+    private double[] sample;
+    private double[] out;
+    private volatile double latestTime;
+
+    @Setup
+    public void setup() {
+        buffer = new ConcurrentTimeInterpolatingBuffer(CAPACITY, 3);
+        buffer.setAngleChannels(2);
+        sample = new double[3];
+        out = new double[3];
+
+        for (int i = 0; i < CAPACITY; i++) {
+            write();
+        }
+    }
+
+    private void write() {
+        double time = latestTime + PERIOD;
+        sample[0] = time;
+        sample[1] = -time;
+        sample[2] = Math.IEEEremainder(time, 2.0 * Math.PI);
+        buffer.add(time, sample);
+        latestTime = time;
+    }
+
+    private boolean read() {
+        // 100 ms in the past, between two samples
+        return buffer.getInterpolated(latestTime - 0.1 - PERIOD / 2.0, out);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void writer() {
+        write();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public boolean reader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readAlone")
+    public boolean readerWithoutWriter() {
+        return read();
+    }
+}
@@ -0,0 +1,132 @@
+package frc.tigerlib.interpolable;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of a single lookup, and of a batch of lookups, in each kind of
+ * interpolating table for a range of table sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InterpolationBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int size;
+
+    private MutableInterpolatingTreeMap<MutableInterpolatingDouble, MutableInterpolatingDouble> treeMap;
+    private InterpolatingDoubleTable linearTable;
+    private InterpolatingDoubleTable monotoneTable;
+    private UniformInterpolatingTable uniformTable;
+
+    private double[] queries;
+    private double[] sortedQueries;
+    private double[] results;
+    private MutableInterpolatingDouble[] treeQueries;
+    private MutableInterpolatingDouble[] sortedTreeQueries;
+    private MutableInterpolatingDouble[] treeResults;
+    private MutableInterpolatingDouble dest;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(4176);
+
+        treeMap = new MutableInterpolatingTreeMap<>();
+        linearTable = new InterpolatingDoubleTable();
+        monotoneTable = new InterpolatingDoubleTable();
+        monotoneTable.setMode(InterpolationMode.kMonotoneCubic);
+
+        double key = 0.0;
+        for (int i = 0; i < size; i++) {
+            key += 0.5 + random.nextDouble();
+            double value = Math.sin(key / 10.0) * 100.0;
+
+            treeMap.put(new MutableInterpolatingDouble(key), new MutableInterpolatingDouble(value));
+            linearTable.put(key, value);
+            monotoneTable.put(key, value);
+        }
+        uniformTable = linearTable.bake(Math.max(size * 4, 2));
+
+        queries = new double[QUERIES];
+        treeQueries = new MutableInterpolatingDouble[QUERIES];
+        treeResults = new MutableInterpolatingDouble[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextDouble() * key;
+            treeQueries[i] = new MutableInterpolatingDouble(queries[i]);
+            treeResults[i] = new MutableInterpolatingDouble(0.0);
+        }
+
+        sortedQueries = queries.clone();
+        Arrays.sort(sortedQueries);
+        sortedTreeQueries = new MutableInterpolatingDouble[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sortedTreeQueries[i] = new MutableInterpolatingDouble(sortedQueries[i]);
+        }
+
+        results = new double[QUERIES];
+        dest = new MutableInterpolatingDouble(0.0);
+
+        // Compute spline coefficients outside of the measurement
+        monotoneTable.getInterpolated(queries[0]);
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public MutableInterpolatingDouble treeMapGetInterpolated() {
+        return treeMap.getInterpolated(treeQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public MutableInterpolatingDouble treeMapGetInterpolatedInto() {
+        return treeMap.getInterpolated(treeQueries[nextQuery()], dest);
+    }
+
+    @Benchmark
+    public double doubleTableLinear() {
+        return linearTable.getInterpolated(queries[nextQuery()]);
+    }
+
+    @Benchmark
+    public double doubleTableMonotoneCubic() {
+        return monotoneTable.getInterpolated(queries[nextQuery()]);
+    }
+
+    @Benchmark
+    public double uniformTable() {
+        return uniformTable.getInterpolated(queries[nextQuery()]);
+    }
+
+    @Benchmark
+    public double[] doubleTableSortedBatch() {
+        linearTable.getInterpolatedSorted(sortedQueries, results);
+        return results;
+    }
+
+    @Benchmark
+    public double[] doubleTableHintedBatch() {
+        linearTable.getInterpolatedBatch(queries, results);
+        return results;
+    }
+
+    @Benchmark
+    public MutableInterpolatingDouble[] treeMapSortedBatch() {
+        treeMap.getInterpolatedSorted(sortedTreeQueries, treeResults);
+        return treeResults;
+    }
+}
@@ -0,0 +1,79 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.hal.HAL;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that a steady-state cycle of the allocation-free drives doesn't
+ * allocate. Runs the same cycles as the allocation-free benchmarks in
+ * {@link DriveBenchmark}, warms them up until the JIT has compiled them, then
+ * counts the bytes the thread allocates over many more cycles. A stray
+ * allocation, e.g. from a deoptimization, can show up in one measurement, so
+ * the check passes if any of a few measurements is under the tolerance.
+ *
+ * <p>
+ * Run with {@code ./gradlew checkAllocations}. It isn't part of {@code check},
+ * since it needs the desktop HAL natives.
+ */
+public final class AllocationCheck {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int CYCLES = 50_000;
+    private static final int ATTEMPTS = 3;
+    /** Bytes allowed per measurement, far less than one byte per cycle. */
+    private static final long TOLERANCE_BYTES = 1024;
+
+    private AllocationCheck() {}
+
+    /**
+     * Exits with status 1 if every measurement allocated more than the
+     * tolerance.
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM can't count allocated bytes");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        HAL.initialize(500, 0);
+        DriveBenchmark.BenchDifferentialDrive differential = new DriveBenchmark.BenchDifferentialDrive(true);
+        DriveBenchmark.BenchMecanumDrive mecanum = new DriveBenchmark.BenchMecanumDrive(true, true);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(differential, mecanum);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < ATTEMPTS && allocated > TOLERANCE_BYTES; attempt++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            run(differential, mecanum);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        System.out.println(CYCLES + " allocation-free drive cycles allocated " + allocated + " bytes");
+        if (allocated > TOLERANCE_BYTES) {
+            System.exit(1);
+        }
+    }
+
+    private static void run(DriveBenchmark.BenchDifferentialDrive differential,
+            DriveBenchmark.BenchMecanumDrive mecanum) {
+        double input = 0.0;
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            input = input > 0.9 ? -0.9 : input + 0.01;
+
+            differential.step();
+            differential.periodic();
+            differential.drive(input, 0.25);
+
+            mecanum.step();
+            mecanum.periodic();
+            mecanum.drive(input, 0.5, 0.25);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/** Stand-ins for hardware that do nothing but remember their state. */
+final class BenchmarkHardware {
+    private BenchmarkHardware() {}
+
+    static final class Motor implements MotorController {
+        double speed;
+        boolean inverted;
+
+        @Override
+        public void set(double speed) {
+            this.speed = speed;
+        }
+
+        @Override
+        public double get() {
+            return speed;
+        }
+
+        @Override
+        public void setInverted(boolean isInverted) {
+            inverted = isInverted;
+        }
+
+        @Override
+        public boolean getInverted() {
+            return inverted;
+        }
+
+        @Override
+        public void disable() {
+            speed = 0.0;
+        }
+
+        @Override
+        public void stopMotor() {
+            speed = 0.0;
+        }
+    }
+
+    static final class SimpleGyro implements Gyro {
+        double angle;
+        double rate;
+
+        @Override
+        public void calibrate() {}
+
+        @Override
+        public void reset() {
+            angle = 0.0;
+        }
+
+        @Override
+        public double getAngle() {
+            return angle;
+        }
+
+        @Override
+        public double getRate() {
+            return rate;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
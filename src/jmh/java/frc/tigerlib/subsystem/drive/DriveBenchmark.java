@@ -0,0 +1,166 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-cycle cost of the drive subsystems' odometry and drive updates. Run with
+ * the gc profiler to see the allocation rate of each. The allocation-free
+ * benchmarks should show a gc.alloc.rate.norm of 0 bytes per operation, which
+ * {@link AllocationCheck} checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveBenchmark {
+    static final class BenchDifferentialDrive extends DifferentialDriveSubsystem {
+        final BenchmarkHardware.SimpleGyro simpleGyro = new BenchmarkHardware.SimpleGyro();
+        double left;
+        double right;
+
+        BenchDifferentialDrive(boolean allocationFree) {
+            setAllocationFree(allocationFree);
+            setGyro(simpleGyro);
+            setMotors(new BenchmarkHardware.Motor(), new BenchmarkHardware.Motor());
+        }
+
+        void step() {
+            left += 0.02;
+            right += 0.021;
+            simpleGyro.angle += 0.1;
+        }
+
+        @Override
+        protected double getLeftDistance() {
+            return left;
+        }
+
+        @Override
+        protected double getRightDistance() {
+            return right;
+        }
+
+        @Override
+        protected void resetEncoders() {
+            left = 0.0;
+            right = 0.0;
+        }
+    }
+
+    static final class BenchMecanumDrive extends MecanumDriveSubsystem {
+        final BenchmarkHardware.SimpleGyro simpleGyro = new BenchmarkHardware.SimpleGyro();
+        final MecanumDriveWheelPositions positions = new MecanumDriveWheelPositions();
+        final MecanumDriveWheelSpeeds speeds = new MecanumDriveWheelSpeeds();
+
+        BenchMecanumDrive(boolean fieldOriented, boolean allocationFree) {
+            setAllocationFree(allocationFree);
+            setGyro(simpleGyro);
+            setMotors(new BenchmarkHardware.Motor(), new BenchmarkHardware.Motor(), new BenchmarkHardware.Motor(),
+                    new BenchmarkHardware.Motor(), new MecanumDriveKinematics(new Translation2d(0.3, 0.3),
+                            new Translation2d(0.3, -0.3), new Translation2d(-0.3, 0.3), new Translation2d(-0.3, -0.3)));
+            setFieldOriented(fieldOriented);
+        }
+
+        void step() {
+            positions.frontLeftMeters += 0.02;
+            positions.frontRightMeters += 0.021;
+            positions.rearLeftMeters += 0.02;
+            positions.rearRightMeters += 0.021;
+            simpleGyro.angle += 0.1;
+        }
+
+        @Override
+        protected MecanumDriveWheelSpeeds getWheelSpeeds() {
+            return speeds;
+        }
+
+        @Override
+        protected MecanumDriveWheelPositions getWheelPositions() {
+            return positions;
+        }
+
+        @Override
+        protected void resetEncoders() {
+            positions.frontLeftMeters = 0.0;
+            positions.frontRightMeters = 0.0;
+            positions.rearLeftMeters = 0.0;
+            positions.rearRightMeters = 0.0;
+        }
+    }
+
+    private BenchDifferentialDrive differential;
+    private BenchMecanumDrive mecanum;
+    private BenchMecanumDrive fieldOrientedMecanum;
+    private BenchDifferentialDrive allocationFreeDifferential;
+    private BenchMecanumDrive allocationFreeMecanum;
+    private double input;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        differential = new BenchDifferentialDrive(false);
+        mecanum = new BenchMecanumDrive(false, false);
+        fieldOrientedMecanum = new BenchMecanumDrive(true, false);
+        allocationFreeDifferential = new BenchDifferentialDrive(true);
+        allocationFreeMecanum = new BenchMecanumDrive(true, true);
+    }
+
+    private double nextInput() {
+        input = input > 0.9 ? -0.9 : input + 0.01;
+        return input;
+    }
+
+    @Benchmark
+    public void differentialPeriodic() {
+        differential.step();
+        differential.periodic();
+    }
+
+    @Benchmark
+    public void differentialDrive() {
+        differential.drive(nextInput(), 0.25);
+    }
+
+    @Benchmark
+    public void mecanumPeriodic() {
+        mecanum.step();
+        mecanum.periodic();
+    }
+
+    @Benchmark
+    public void mecanumDrive() {
+        mecanum.drive(nextInput(), 0.5, 0.25);
+    }
+
+    @Benchmark
+    public void mecanumFieldOrientedDrive() {
+        fieldOrientedMecanum.step();
+        fieldOrientedMecanum.drive(nextInput(), 0.5, 0.25);
+    }
+
+    @Benchmark
+    public void allocationFreeDifferentialCycle() {
+        allocationFreeDifferential.step();
+        allocationFreeDifferential.periodic();
+        allocationFreeDifferential.drive(nextInput(), 0.25);
+    }
+
+    @Benchmark
+    public void allocationFreeMecanumCycle() {
+        allocationFreeMecanum.step();
+        allocationFreeMecanum.periodic();
+        allocationFreeMecanum.drive(nextInput(), 0.5, 0.25);
+    }
+}
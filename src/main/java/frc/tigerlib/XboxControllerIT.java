@@ -1,6 +1,10 @@
 package frc.tigerlib;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
@@ -19,10 +23,46 @@ import edu.wpi.first.wpilibj2.command.button.Trigger;
  * for each controller
  * and the mapping of ports to hardware buttons depends on the code in the
  * Driver Station.
+ *
+ * <p>
+ * In {@link #setSnapshotMode(boolean) snapshot mode}, the axes, buttons and
+ * POV are instead read all at once, when the {@link CommandScheduler} polls its
+ * default button loop each cycle, before commands run. Every read during the
+ * cycle returns the same snapshot without going back to the Driver Station,
+ * and the deadzones are applied once at capture. The triggers from
+ * {@link #a()}, {@link #button(int)}, {@link #pov(int)} and the like read the
+ * snapshot too. Only {@link #getHID()} always reads the Driver Station.
+ *
+ * <p>
+ * The deadzone can be {@link DeadzoneShape#kAxial axial}, applied to each axis
+ * separately, or {@link DeadzoneShape#kRadial radial}, applied to the
+ * distance of each stick from center so diagonals aren't distorted. Each
+ * stick can have its own deadzone.
  */
 public class XboxControllerIT extends CommandXboxController {
+    /** How the deadzone is applied to a stick. */
+    public enum DeadzoneShape {
+        /** Each axis of the stick has its own deadzone. */
+        kAxial,
+        /** The stick's distance from center has a deadzone. */
+        kRadial
+    }
+
     private int lastPOV = -1;
-    private double deadzone;
+    private double leftDeadzone;
+    private double rightDeadzone;
+    private DeadzoneShape deadzoneShape = DeadzoneShape.kAxial;
+
+    private boolean snapshotMode;
+    private final double[] stick = new double[2];
+    private double leftX;
+    private double leftY;
+    private double rightX;
+    private double rightY;
+    private double leftTrigger;
+    private double rightTrigger;
+    private int buttons;
+    private int snapshotPOV = -1;
 
     /** 
      * Represents a d-pad direction on an XboxController. 
@@ -67,30 +107,155 @@ public class XboxControllerIT extends CommandXboxController {
      */
     public XboxControllerIT(final int port) {
         super(port);
-        deadzone = 0.05;
+        leftDeadzone = 0.05;
+        rightDeadzone = 0.05;
+        // Bound before any trigger, so triggers on the default loop see this
+        // cycle's snapshot. Does nothing until snapshot mode is enabled.
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(this::capture);
     }
 
     /**
-     * Returns 0.0 if the given value is within the deadzone around zero. The
-     * remaining range between the deadband and 1.0 is scaled from 0.0 to 1.0.
+     * Set the deadzone of both sticks. Stick values within the deadzone around
+     * zero read as 0.0, and the remaining range up to 1.0 is scaled from 0.0 to
+     * 1.0.
      * 
      * @param deadzone The range ±0.0 which will be returned as 0.0.
      *                 Valid range: 0.0 - 1.0
      */
     public void setDeadzone(double deadzone) {
-        this.deadzone = deadzone;
+        leftDeadzone = deadzone;
+        rightDeadzone = deadzone;
     }
 
     /**
      * Get the deadzone currently set for the controller.
      * 
-     * @return Current deadzone
+     * @return Current deadzone of the left stick, the same as the right stick
+     *         unless they were set separately
      */
     public double getDeadzone() {
-        return deadzone;
+        return leftDeadzone;
+    }
+
+    /**
+     * Set the deadzone of the left stick.
+     * 
+     * @param deadzone Valid range: 0.0 - 1.0
+     */
+    public void setLeftDeadzone(double deadzone) {
+        leftDeadzone = deadzone;
+    }
+
+    /**
+     * Set the deadzone of the right stick.
+     * 
+     * @param deadzone Valid range: 0.0 - 1.0
+     */
+    public void setRightDeadzone(double deadzone) {
+        rightDeadzone = deadzone;
+    }
+
+    /**
+     * @return Current deadzone of the left stick
+     */
+    public double getLeftDeadzone() {
+        return leftDeadzone;
+    }
+
+    /**
+     * @return Current deadzone of the right stick
+     */
+    public double getRightDeadzone() {
+        return rightDeadzone;
+    }
+
+    /**
+     * Set how the deadzone is applied to the sticks. Defaults to
+     * {@link DeadzoneShape#kAxial}.
+     * 
+     * @param shape Deadzone shape
+     */
+    public void setDeadzoneShape(DeadzoneShape shape) {
+        deadzoneShape = shape;
     }
 
-    private double applyDeadzone(double value) {
+    /**
+     * @return How the deadzone is applied to the sticks
+     */
+    public DeadzoneShape getDeadzoneShape() {
+        return deadzoneShape;
+    }
+
+    /**
+     * Read all inputs once per scheduler cycle instead of on every call. The
+     * snapshot is captured when the {@link CommandScheduler} polls its default
+     * button loop.
+     * 
+     * @param enabled true to read from a snapshot
+     */
+    public void setSnapshotMode(boolean enabled) {
+        snapshotMode = enabled;
+        if (enabled) {
+            capture();
+        }
+    }
+
+    /**
+     * @return true if inputs are read from a snapshot
+     */
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /**
+     * Read every axis, button and the POV into the snapshot. Called by the
+     * scheduler each cycle in snapshot mode, and can be called directly to
+     * refresh the snapshot mid-cycle. Does nothing outside snapshot mode.
+     */
+    public void capture() {
+        if (!snapshotMode) {
+            return;
+        }
+
+        int port = getHID().getPort();
+        readStick(
+                DriverStation.getStickAxis(port, XboxController.Axis.kLeftX.value),
+                DriverStation.getStickAxis(port, XboxController.Axis.kLeftY.value),
+                leftDeadzone);
+        leftX = stick[0];
+        leftY = stick[1];
+        readStick(
+                DriverStation.getStickAxis(port, XboxController.Axis.kRightX.value),
+                DriverStation.getStickAxis(port, XboxController.Axis.kRightY.value),
+                rightDeadzone);
+        rightX = stick[0];
+        rightY = stick[1];
+        leftTrigger = DriverStation.getStickAxis(port, XboxController.Axis.kLeftTrigger.value);
+        rightTrigger = DriverStation.getStickAxis(port, XboxController.Axis.kRightTrigger.value);
+        buttons = DriverStation.getStickButtons(port);
+        snapshotPOV = DriverStation.getStickPOV(port, 0);
+    }
+
+    /** Apply the deadzone to a stick and store it in {@link #stick}. */
+    private void readStick(double x, double y, double deadzone) {
+        if (deadzoneShape == DeadzoneShape.kAxial) {
+            stick[0] = applyDeadzone(x, deadzone);
+            stick[1] = applyDeadzone(y, deadzone);
+            return;
+        }
+
+        double magnitude = Math.hypot(x, y);
+        if (magnitude <= deadzone) {
+            stick[0] = 0.0;
+            stick[1] = 0.0;
+            return;
+        }
+        double scale = (Math.min(magnitude, 1.0) - deadzone) / (1.0 - deadzone) / magnitude;
+        stick[0] = x * scale;
+        stick[1] = y * scale;
+    }
+
+    private static double applyDeadzone(double value, double deadzone) {
         if (Math.abs(value) > deadzone) {
             if (value > 0.0) {
                 return (value - deadzone) / (1.0 - deadzone);
@@ -104,22 +269,156 @@ public class XboxControllerIT extends CommandXboxController {
 
     @Override
     public double getLeftX() {
-        return applyDeadzone(super.getLeftX());
+        if (snapshotMode) {
+            return leftX;
+        }
+        readStick(super.getLeftX(), deadzoneShape == DeadzoneShape.kRadial ? super.getLeftY() : 0.0, leftDeadzone);
+        return stick[0];
     }
 
     @Override
     public double getLeftY() {
-        return applyDeadzone(super.getLeftY());
+        if (snapshotMode) {
+            return leftY;
+        }
+        readStick(deadzoneShape == DeadzoneShape.kRadial ? super.getLeftX() : 0.0, super.getLeftY(), leftDeadzone);
+        return stick[1];
     }
 
     @Override
     public double getRightX() {
-        return applyDeadzone(super.getRightX());
+        if (snapshotMode) {
+            return rightX;
+        }
+        readStick(super.getRightX(), deadzoneShape == DeadzoneShape.kRadial ? super.getRightY() : 0.0, rightDeadzone);
+        return stick[0];
     }
 
     @Override
     public double getRightY() {
-        return applyDeadzone(super.getRightY());
+        if (snapshotMode) {
+            return rightY;
+        }
+        readStick(deadzoneShape == DeadzoneShape.kRadial ? super.getRightX() : 0.0, super.getRightY(), rightDeadzone);
+        return stick[1];
+    }
+
+    @Override
+    public double getLeftTriggerAxis() {
+        return snapshotMode ? leftTrigger : super.getLeftTriggerAxis();
+    }
+
+    @Override
+    public double getRightTriggerAxis() {
+        return snapshotMode ? rightTrigger : super.getRightTriggerAxis();
+    }
+
+    /**
+     * Read a button, from the snapshot in snapshot mode.
+     * 
+     * @param button Button to read
+     * @return true if the button is held
+     */
+    public boolean getButton(XboxController.Button button) {
+        return readButton(button.value);
+    }
+
+    private boolean readButton(int button) {
+        if (snapshotMode) {
+            return (buttons & (1 << (button - 1))) != 0;
+        }
+        return getHID().getRawButton(button);
+    }
+
+    @Override
+    public Trigger button(int button, EventLoop loop) {
+        return new Trigger(loop, () -> readButton(button));
+    }
+
+    @Override
+    public Trigger a(EventLoop loop) {
+        return button(XboxController.Button.kA.value, loop);
+    }
+
+    @Override
+    public Trigger b(EventLoop loop) {
+        return button(XboxController.Button.kB.value, loop);
+    }
+
+    @Override
+    public Trigger x(EventLoop loop) {
+        return button(XboxController.Button.kX.value, loop);
+    }
+
+    @Override
+    public Trigger y(EventLoop loop) {
+        return button(XboxController.Button.kY.value, loop);
+    }
+
+    @Override
+    public Trigger leftBumper(EventLoop loop) {
+        return button(XboxController.Button.kLeftBumper.value, loop);
+    }
+
+    @Override
+    public Trigger rightBumper(EventLoop loop) {
+        return button(XboxController.Button.kRightBumper.value, loop);
+    }
+
+    @Override
+    public Trigger back(EventLoop loop) {
+        return button(XboxController.Button.kBack.value, loop);
+    }
+
+    @Override
+    public Trigger start(EventLoop loop) {
+        return button(XboxController.Button.kStart.value, loop);
+    }
+
+    @Override
+    public Trigger leftStick(EventLoop loop) {
+        return button(XboxController.Button.kLeftStick.value, loop);
+    }
+
+    @Override
+    public Trigger rightStick(EventLoop loop) {
+        return button(XboxController.Button.kRightStick.value, loop);
+    }
+
+    @Override
+    public Trigger leftTrigger(double threshold, EventLoop loop) {
+        return new Trigger(loop, () -> getLeftTriggerAxis() > threshold);
+    }
+
+    @Override
+    public Trigger rightTrigger(double threshold, EventLoop loop) {
+        return new Trigger(loop, () -> getRightTriggerAxis() > threshold);
+    }
+
+    /**
+     * Constructs a Trigger instance based around this angle of a POV on the
+     * HID. POV 0 is read from the snapshot in snapshot mode.
+     *
+     * @param pov   index of the POV to read (starting at 0)
+     * @param angle POV angle in degrees, or -1 for the center / not pressed
+     * @param loop  the event loop instance to attach the event to
+     * @return a Trigger instance based around this angle of a POV on the HID
+     */
+    @Override
+    public Trigger pov(int pov, int angle, EventLoop loop) {
+        if (pov != 0) {
+            return super.pov(pov, angle, loop);
+        }
+        return new Trigger(loop, () -> getSnapshotPOV() == angle);
+    }
+
+    /**
+     * Read the angle of the POV, from the snapshot in snapshot mode.
+     * 
+     * @return the angle of the POV in degrees, or -1 if the POV is not pressed.
+     */
+    public int getSnapshotPOV() {
+        return snapshotMode ? snapshotPOV : getHID().getPOV();
     }
 
     /**
@@ -136,7 +435,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public int getPOV() {
-        lastPOV = getHID().getPOV();
+        lastPOV = getSnapshotPOV();
         return lastPOV;
     }
 
@@ -162,7 +461,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getLeftDPadPressed() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV != DPadDirection.kLeft.value && pov == DPadDirection.kLeft.value) {
             lastPOV = pov;
             return true;
@@ -181,7 +480,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getLeftDPadReleased() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV == DPadDirection.kLeft.value && pov != DPadDirection.kLeft.value) {
             lastPOV = pov;
             return true;
@@ -215,7 +514,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getRightDPadPressed() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV != DPadDirection.kRight.value && pov == DPadDirection.kRight.value) {
             lastPOV = pov;
             return true;
@@ -234,7 +533,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getRightDPadReleased() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV == DPadDirection.kRight.value && pov != DPadDirection.kRight.value) {
             lastPOV = pov;
             return true;
@@ -266,7 +565,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getUpDPadPressed() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV != DPadDirection.kUp.value && pov == DPadDirection.kUp.value) {
             lastPOV = pov;
             return true;
@@ -285,7 +584,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getUpDPadReleased() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV == DPadDirection.kUp.value && pov != DPadDirection.kUp.value) {
             lastPOV = pov;
             return true;
@@ -317,7 +616,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getDownDPadPressed() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV != DPadDirection.kDown.value && pov == DPadDirection.kDown.value) {
             lastPOV = pov;
             return true;
@@ -336,7 +635,7 @@ public class XboxControllerIT extends CommandXboxController {
      */
     @Deprecated(since = "2023", forRemoval = true)
     public boolean getDownDPadReleased() {
-        int pov = getHID().getPOV();
+        int pov = getSnapshotPOV();
         if (lastPOV == DPadDirection.kDown.value && pov != DPadDirection.kDown.value) {
             lastPOV = pov;
             return true;
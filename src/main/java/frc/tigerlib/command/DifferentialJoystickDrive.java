@@ -6,15 +6,22 @@ package frc.tigerlib.command;
 
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.tigerlib.input.AxisShaper;
 import frc.tigerlib.subsystem.drive.DifferentialDriveSubsystem;
+import frc.tigerlib.telemetry.LoopTimer;
+import frc.tigerlib.telemetry.LoopTiming;
 
 /**
  * Prewritten command to drive a {@link DifferentialDriveSubsystem} with a
- * {@link CommandXboxController}.
+ * {@link CommandXboxController}. The left stick's Y axis drives forward and
+ * its X axis turns, each through an optional {@link AxisShaper}.
  */
 public class DifferentialJoystickDrive extends CommandBase {
   private DifferentialDriveSubsystem driveSys;
   private CommandXboxController controller;
+  private final AxisShaper speedShaper;
+  private final AxisShaper rotationShaper;
+  private final LoopTimer executeTimer;
 
   /**
    * Construct a DifferentialJoystickDrive command.
@@ -28,15 +35,47 @@ public class DifferentialJoystickDrive extends CommandBase {
    * @param controller     {@link CommandXboxController} to use for driving.
    */
   public DifferentialJoystickDrive(DifferentialDriveSubsystem driveSubsystem, CommandXboxController controller) {
+    this(driveSubsystem, controller, AxisShaper.builder().build(), AxisShaper.builder().build());
+  }
+
+  /**
+   * Construct a DifferentialJoystickDrive command with shaped inputs.
+   * 
+   * <p>
+   * This command should be set as the default for the subsystem after
+   * creation.
+   * 
+   * @param driveSubsystem {@link DifferentialDriveSubsystem} to drive.
+   * @param controller     {@link CommandXboxController} to use for driving.
+   * @param speedShaper    {@link AxisShaper} for the left stick's Y axis.
+   * @param rotationShaper {@link AxisShaper} for the left stick's X axis.
+   */
+  public DifferentialJoystickDrive(
+      DifferentialDriveSubsystem driveSubsystem,
+      CommandXboxController controller,
+      AxisShaper speedShaper,
+      AxisShaper rotationShaper) {
     driveSys = driveSubsystem;
     this.controller = controller;
+    this.speedShaper = speedShaper;
+    this.rotationShaper = rotationShaper;
     addRequirements(driveSys);
+    executeTimer = LoopTiming.timer(getName() + ".execute()");
+  }
+
+  // Called when the command is initially scheduled.
+  @Override
+  public void initialize() {
+    speedShaper.reset(0.0);
+    rotationShaper.reset(0.0);
   }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    driveSys.drive(controller.getLeftY(), -controller.getLeftX());
+    long start = executeTimer.start();
+    driveSys.drive(speedShaper.apply(controller.getLeftY()), -rotationShaper.apply(controller.getLeftX()));
+    executeTimer.stop(start);
   }
 
   // Returns true when the command should end.
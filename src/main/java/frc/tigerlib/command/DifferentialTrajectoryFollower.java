@@ -0,0 +1,136 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.tigerlib.command;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.tigerlib.subsystem.drive.DifferentialDriveSubsystem;
+import frc.tigerlib.telemetry.LoopTimer;
+import frc.tigerlib.telemetry.LoopTiming;
+import frc.tigerlib.trajectory.SampledTrajectory;
+
+/**
+ * Prewritten command to follow a {@link Trajectory} with a
+ * {@link DifferentialDriveSubsystem}, using a RAMSETE controller on the
+ * subsystem's {@link DifferentialDriveSubsystem#getRobotPosition() robot
+ * position}.
+ *
+ * <p>
+ * The trajectory is resampled when the command is constructed, so following
+ * it only indexes into arrays and doesn't allocate.
+ */
+public class DifferentialTrajectoryFollower extends CommandBase {
+  /** Receives the wheel speeds to drive at, e.g. to run velocity control. */
+  @FunctionalInterface
+  public interface WheelSpeedOutput {
+    /**
+     * @param leftMetersPerSecond  Speed of the left wheels
+     * @param rightMetersPerSecond Speed of the right wheels
+     */
+    void setWheelSpeeds(double leftMetersPerSecond, double rightMetersPerSecond);
+  }
+
+  private DifferentialDriveSubsystem driveSys;
+  private final SampledTrajectory trajectory;
+  private final SampledTrajectory.State reference = new SampledTrajectory.State();
+  private final double trackWidth;
+  private final WheelSpeedOutput output;
+  private final Timer timer = new Timer();
+  private final LoopTimer executeTimer;
+  private double b = 2.0;
+  private double zeta = 0.7;
+
+  /**
+   * Construct a DifferentialTrajectoryFollower command.
+   * 
+   * @param driveSubsystem   {@link DifferentialDriveSubsystem} to drive.
+   * @param trajectory       {@link Trajectory} to follow, starting from when
+   *                         the command is scheduled.
+   * @param trackWidthMeters Distance between the left and right wheels.
+   * @param output           Drives the wheels at the commanded speeds.
+   */
+  public DifferentialTrajectoryFollower(
+      DifferentialDriveSubsystem driveSubsystem,
+      Trajectory trajectory,
+      double trackWidthMeters,
+      WheelSpeedOutput output) {
+    driveSys = driveSubsystem;
+    this.trajectory = new SampledTrajectory(trajectory, 0.02);
+    trackWidth = trackWidthMeters;
+    this.output = output;
+
+    addRequirements(driveSys);
+    executeTimer = LoopTiming.timer(getName() + ".execute()");
+  }
+
+  /**
+   * Set the RAMSETE gains. Defaults to b = 2.0 and zeta = 0.7, which work for
+   * most robots.
+   * 
+   * @param b    Convergence gain, larger is more aggressive, must be positive
+   * @param zeta Damping, on (0, 1)
+   */
+  public void setGains(double b, double zeta) {
+    this.b = b;
+    this.zeta = zeta;
+  }
+
+  // Called when the command is initially scheduled.
+  @Override
+  public void initialize() {
+    timer.reset();
+    timer.start();
+  }
+
+  // Called every time the scheduler runs while the command is scheduled.
+  @Override
+  public void execute() {
+    long start = executeTimer.start();
+    trajectory.sample(timer.get(), reference);
+    Pose2d pose = driveSys.getRobotPosition();
+
+    // Error in the robot's frame
+    double heading = pose.getRotation().getRadians();
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    double fieldErrorX = reference.x - pose.getX();
+    double fieldErrorY = reference.y - pose.getY();
+    double errorX = cos * fieldErrorX + sin * fieldErrorY;
+    double errorY = -sin * fieldErrorX + cos * fieldErrorY;
+    double errorHeading = Math.IEEEremainder(reference.heading - heading, 2.0 * Math.PI);
+
+    double referenceVelocity = reference.velocity;
+    double referenceOmega = referenceVelocity * reference.curvature;
+    double k = 2.0 * zeta * Math.sqrt(referenceOmega * referenceOmega + b * referenceVelocity * referenceVelocity);
+
+    double velocity = referenceVelocity * Math.cos(errorHeading) + k * errorX;
+    double omega = referenceOmega + k * errorHeading + b * referenceVelocity * sinc(errorHeading) * errorY;
+
+    output.setWheelSpeeds(velocity - omega * trackWidth / 2.0, velocity + omega * trackWidth / 2.0);
+    executeTimer.stop(start);
+  }
+
+  private static double sinc(double x) {
+    if (Math.abs(x) < 1e-9) {
+      return 1.0 - x * x / 6.0;
+    }
+    return Math.sin(x) / x;
+  }
+
+  // Called once the command ends or is interrupted.
+  @Override
+  public void end(boolean interrupted) {
+    timer.stop();
+    output.setWheelSpeeds(0.0, 0.0);
+  }
+
+  // Returns true when the command should end.
+  @Override
+  public boolean isFinished() {
+    return timer.hasElapsed(trajectory.getTotalTime());
+  }
+}
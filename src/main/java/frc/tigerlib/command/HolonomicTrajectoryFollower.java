@@ -0,0 +1,150 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.tigerlib.command;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.tigerlib.subsystem.drive.DriveSubsystemBase;
+import frc.tigerlib.subsystem.drive.MecanumDriveSubsystem;
+import frc.tigerlib.subsystem.drive.SwerveDriveSubsystem;
+import frc.tigerlib.telemetry.LoopTimer;
+import frc.tigerlib.telemetry.LoopTiming;
+import frc.tigerlib.trajectory.SampledTrajectory;
+
+/**
+ * Prewritten command to follow a {@link Trajectory} with a holonomic drive,
+ * such as a {@link MecanumDriveSubsystem} or {@link SwerveDriveSubsystem}.
+ * The trajectory's velocity is fed forward, and position and heading errors
+ * from the subsystem's {@link DriveSubsystemBase#getRobotPosition() robot
+ * position} are corrected proportionally. The robot turns to a separate
+ * heading rather than following the path's direction of travel.
+ *
+ * <p>
+ * The trajectory is resampled when the command is constructed, so following
+ * it only indexes into arrays and doesn't allocate.
+ */
+public class HolonomicTrajectoryFollower extends CommandBase {
+  /**
+   * Receives the robot-relative speeds to drive at, e.g.
+   * {@link SwerveDriveSubsystem#setChassisSpeeds(double, double, double)}.
+   */
+  @FunctionalInterface
+  public interface ChassisSpeedOutput {
+    /**
+     * @param vxMetersPerSecond     Forward speed
+     * @param vyMetersPerSecond     Sideways speed, left positive
+     * @param omegaRadiansPerSecond Turn rate, counterclockwise positive
+     */
+    void setChassisSpeeds(double vxMetersPerSecond, double vyMetersPerSecond, double omegaRadiansPerSecond);
+  }
+
+  private DriveSubsystemBase driveSys;
+  private final SampledTrajectory trajectory;
+  private final SampledTrajectory.State reference = new SampledTrajectory.State();
+  private final double targetHeading;
+  private final ChassisSpeedOutput output;
+  private final Timer timer = new Timer();
+  private final LoopTimer executeTimer;
+  private double translationKp = 1.0;
+  private double headingKp = 1.0;
+
+  /**
+   * Construct a HolonomicTrajectoryFollower command that turns to the
+   * trajectory's final heading.
+   * 
+   * @param driveSubsystem {@link DriveSubsystemBase} to drive.
+   * @param trajectory     {@link Trajectory} to follow, starting from when the
+   *                       command is scheduled.
+   * @param output         Drives the robot at the commanded speeds.
+   */
+  public HolonomicTrajectoryFollower(
+      DriveSubsystemBase driveSubsystem, Trajectory trajectory, ChassisSpeedOutput output) {
+    this(
+        driveSubsystem,
+        trajectory,
+        trajectory.sample(trajectory.getTotalTimeSeconds()).poseMeters.getRotation().getRadians(),
+        output);
+  }
+
+  /**
+   * Construct a HolonomicTrajectoryFollower command.
+   * 
+   * @param driveSubsystem       {@link DriveSubsystemBase} to drive.
+   * @param trajectory           {@link Trajectory} to follow, starting from
+   *                             when the command is scheduled.
+   * @param targetHeadingRadians Heading to turn to while following.
+   * @param output               Drives the robot at the commanded speeds.
+   */
+  public HolonomicTrajectoryFollower(
+      DriveSubsystemBase driveSubsystem,
+      Trajectory trajectory,
+      double targetHeadingRadians,
+      ChassisSpeedOutput output) {
+    driveSys = driveSubsystem;
+    this.trajectory = new SampledTrajectory(trajectory, 0.02);
+    targetHeading = targetHeadingRadians;
+    this.output = output;
+
+    addRequirements(driveSys);
+    executeTimer = LoopTiming.timer(getName() + ".execute()");
+  }
+
+  /**
+   * Set the proportional gains. Both default to 1.
+   * 
+   * @param translationKp Speed, in meters per second, per meter of position
+   *                      error
+   * @param headingKp     Turn rate, in radians per second, per radian of
+   *                      heading error
+   */
+  public void setGains(double translationKp, double headingKp) {
+    this.translationKp = translationKp;
+    this.headingKp = headingKp;
+  }
+
+  // Called when the command is initially scheduled.
+  @Override
+  public void initialize() {
+    timer.reset();
+    timer.start();
+  }
+
+  // Called every time the scheduler runs while the command is scheduled.
+  @Override
+  public void execute() {
+    long start = executeTimer.start();
+    trajectory.sample(timer.get(), reference);
+    Pose2d pose = driveSys.getRobotPosition();
+
+    // Field-relative feedforward along the path plus position correction
+    double fieldVx = reference.velocity * Math.cos(reference.heading)
+        + translationKp * (reference.x - pose.getX());
+    double fieldVy = reference.velocity * Math.sin(reference.heading)
+        + translationKp * (reference.y - pose.getY());
+
+    double heading = pose.getRotation().getRadians();
+    double omega = headingKp * Math.IEEEremainder(targetHeading - heading, 2.0 * Math.PI);
+
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    output.setChassisSpeeds(cos * fieldVx + sin * fieldVy, -sin * fieldVx + cos * fieldVy, omega);
+    executeTimer.stop(start);
+  }
+
+  // Called once the command ends or is interrupted.
+  @Override
+  public void end(boolean interrupted) {
+    timer.stop();
+    output.setChassisSpeeds(0.0, 0.0, 0.0);
+  }
+
+  // Returns true when the command should end.
+  @Override
+  public boolean isFinished() {
+    return timer.hasElapsed(trajectory.getTotalTime());
+  }
+}
@@ -6,7 +6,10 @@ package frc.tigerlib.command;
 
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.tigerlib.input.AxisShaper;
 import frc.tigerlib.subsystem.drive.MecanumDriveSubsystem;
+import frc.tigerlib.telemetry.LoopTimer;
+import frc.tigerlib.telemetry.LoopTiming;
 
 /**
  * Prewritten command to drive a {@link MecanumDriveSubsystem} with a
@@ -15,6 +18,10 @@ import frc.tigerlib.subsystem.drive.MecanumDriveSubsystem;
 public class MecanumJoystickDrive extends CommandBase {
   private MecanumDriveSubsystem driveSys;
   private CommandXboxController controller;
+  private final AxisShaper xShaper;
+  private final AxisShaper yShaper;
+  private final AxisShaper rotationShaper;
+  private final LoopTimer executeTimer;
 
   /**
    * Construct a MecanumJoystickDrive command. Left joystick is used for
@@ -30,17 +37,65 @@ public class MecanumJoystickDrive extends CommandBase {
    * @param controller     {@link CommandXboxController} to use for driving.
    */
   public MecanumJoystickDrive(MecanumDriveSubsystem driveSubsystem, CommandXboxController controller) {
+    this(
+        driveSubsystem,
+        controller,
+        AxisShaper.builder().build(),
+        AxisShaper.builder().build(),
+        AxisShaper.builder().build());
+  }
+
+  /**
+   * Construct a MecanumJoystickDrive command with shaped inputs. Each axis is
+   * passed through its {@link AxisShaper} before driving.
+   * 
+   * <p>
+   * This command should be set as the default for the subsystem after
+   * creation.
+   * 
+   * @param driveSubsystem {@link MecanumDriveSubsystem} to drive.
+   * @param controller     {@link CommandXboxController} to use for driving.
+   * @param xShaper        {@link AxisShaper} for forward movement, the left
+   *                       stick's Y axis.
+   * @param yShaper        {@link AxisShaper} for strafing, the left stick's X
+   *                       axis.
+   * @param rotationShaper {@link AxisShaper} for rotation, the right stick's X
+   *                       axis.
+   */
+  public MecanumJoystickDrive(
+      MecanumDriveSubsystem driveSubsystem,
+      CommandXboxController controller,
+      AxisShaper xShaper,
+      AxisShaper yShaper,
+      AxisShaper rotationShaper) {
     // Use addRequirements() here to declare subsystem dependencies.
     driveSys = driveSubsystem;
     this.controller = controller;
+    this.xShaper = xShaper;
+    this.yShaper = yShaper;
+    this.rotationShaper = rotationShaper;
 
     addRequirements(driveSys);
+    executeTimer = LoopTiming.timer(getName() + ".execute()");
+  }
+
+  // Called when the command is initially scheduled.
+  @Override
+  public void initialize() {
+    xShaper.reset(0.0);
+    yShaper.reset(0.0);
+    rotationShaper.reset(0.0);
   }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    driveSys.drive(controller.getLeftY(), -controller.getLeftX(), -controller.getRightX());
+    long start = executeTimer.start();
+    driveSys.drive(
+        xShaper.apply(controller.getLeftY()),
+        -yShaper.apply(controller.getLeftX()),
+        -rotationShaper.apply(controller.getRightX()));
+    executeTimer.stop(start);
   }
 
   // Returns true when the command should end.
@@ -0,0 +1,231 @@
+package frc.tigerlib.input;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.tigerlib.interpolable.InterpolatingDoubleTable;
+import frc.tigerlib.interpolable.UniformInterpolatingTable;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Shapes a joystick axis through a fixed pipeline: deadzone, curve,
+ * sensitivity, then slew rate limit. Stages that aren't configured pass the
+ * value through.
+ *
+ * <p>
+ * A shaper is described with a {@link Builder} and compiled once by
+ * {@link Builder#build()} into primitive fields, so {@link #apply(double)} is
+ * straight-line arithmetic that doesn't allocate. The expo and cubic curves
+ * are evaluated as a polynomial. Custom curves are sampled once into a
+ * {@link UniformInterpolatingTable}, so any curve costs one table lookup.
+ *
+ * <pre>
+ * <code>
+ * AxisShaper speed = AxisShaper.builder()
+ *     .deadzone(0.08)
+ *     .expo(0.4)
+ *     .sensitivity(0.8)
+ *     .slewRate(3.0)
+ *     .build();
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The slew rate limit keeps the last output, so each axis needs its own
+ * shaper.
+ */
+public final class AxisShaper {
+    /** Number of points custom curves are sampled at, over [-1, 1]. */
+    private static final int CURVE_RESOLUTION = 257;
+
+    private final double deadzone;
+    private final double deadzoneScale;
+    private final double linear;
+    private final double cubic;
+    private final UniformInterpolatingTable curve;
+    private final double sensitivity;
+    private final double slewRate;
+
+    private double lastOutput;
+    private double lastTime = Double.NaN;
+
+    /** Describes the stages of an {@link AxisShaper}. */
+    public static final class Builder {
+        private double deadzone;
+        private double expo;
+        private DoubleUnaryOperator curve;
+        private double sensitivity = 1.0;
+        private double slewRate = Double.POSITIVE_INFINITY;
+
+        private Builder() {}
+
+        /**
+         * Zero values within the deadzone, and rescale the rest so the output
+         * still starts at 0 and reaches 1.
+         *
+         * @param deadzone Range ±0.0 returned as 0.0, on [0, 1)
+         * @return This builder
+         */
+        public Builder deadzone(double deadzone) {
+            if (!(deadzone >= 0.0 && deadzone < 1.0)) {
+                throw new IllegalArgumentException("Deadzone must be on [0, 1)");
+            }
+            this.deadzone = deadzone;
+            return this;
+        }
+
+        /**
+         * Blend between a linear and a cubic response, for finer control near
+         * center. Replaces any other curve.
+         *
+         * @param expo 0 for linear, 1 for cubic
+         * @return This builder
+         */
+        public Builder expo(double expo) {
+            if (!(expo >= 0.0 && expo <= 1.0)) {
+                throw new IllegalArgumentException("Expo must be on [0, 1]");
+            }
+            this.expo = expo;
+            curve = null;
+            return this;
+        }
+
+        /**
+         * Cube the value. The same as {@code expo(1.0)}.
+         *
+         * @return This builder
+         */
+        public Builder cubic() {
+            return expo(1.0);
+        }
+
+        /**
+         * Use a custom curve. It is sampled into a lookup table when the shaper
+         * is built, so it is never called while driving. Replaces any other
+         * curve.
+         *
+         * @param curve Function from [-1, 1] to the shaped value
+         * @return This builder
+         */
+        public Builder curve(DoubleUnaryOperator curve) {
+            this.curve = curve;
+            expo = 0.0;
+            return this;
+        }
+
+        /**
+         * Scale the curved value, e.g. to slow the robot down.
+         *
+         * @param sensitivity Multiplier
+         * @return This builder
+         */
+        public Builder sensitivity(double sensitivity) {
+            this.sensitivity = sensitivity;
+            return this;
+        }
+
+        /**
+         * Limit how fast the output can change.
+         *
+         * @param unitsPerSecond Largest change per second, e.g. 2.0 to go from
+         *                       0 to full in half a second
+         * @return This builder
+         */
+        public Builder slewRate(double unitsPerSecond) {
+            if (!(unitsPerSecond > 0.0)) {
+                throw new IllegalArgumentException("Slew rate must be positive");
+            }
+            slewRate = unitsPerSecond;
+            return this;
+        }
+
+        /**
+         * Compile the stages into a shaper.
+         *
+         * @return New shaper
+         */
+        public AxisShaper build() {
+            UniformInterpolatingTable table = null;
+            if (curve != null) {
+                double[] keys = new double[CURVE_RESOLUTION];
+                double[] values = new double[CURVE_RESOLUTION];
+                for (int i = 0; i < CURVE_RESOLUTION; i++) {
+                    keys[i] = -1.0 + 2.0 * i / (CURVE_RESOLUTION - 1);
+                    values[i] = curve.applyAsDouble(keys[i]);
+                }
+                table = InterpolatingDoubleTable.fromSorted(keys, values).bake(CURVE_RESOLUTION);
+            }
+            return new AxisShaper(deadzone, 1.0 - expo, expo, table, sensitivity, slewRate);
+        }
+    }
+
+    private AxisShaper(double deadzone, double linear, double cubic, UniformInterpolatingTable curve,
+            double sensitivity, double slewRate) {
+        this.deadzone = deadzone;
+        deadzoneScale = 1.0 / (1.0 - deadzone);
+        this.linear = linear;
+        this.cubic = cubic;
+        this.curve = curve;
+        this.sensitivity = sensitivity;
+        this.slewRate = slewRate;
+    }
+
+    /**
+     * Start describing a shaper. With no stages added, it passes values
+     * through unchanged.
+     *
+     * @return New builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Shape a value, timing the slew rate limit with
+     * {@link Timer#getFPGATimestamp()}.
+     *
+     * @param value Raw axis value, clamped to [-1, 1]
+     * @return Shaped value
+     */
+    public double apply(double value) {
+        double x = Math.max(-1.0, Math.min(1.0, value));
+
+        double magnitude = Math.abs(x);
+        x = magnitude > deadzone ? Math.copySign((magnitude - deadzone) * deadzoneScale, x) : 0.0;
+
+        if (curve != null) {
+            x = curve.getInterpolated(x);
+        } else {
+            x *= linear + cubic * x * x;
+        }
+
+        x *= sensitivity;
+
+        if (slewRate != Double.POSITIVE_INFINITY) {
+            double now = Timer.getFPGATimestamp();
+            if (!Double.isNaN(lastTime)) {
+                double maxChange = slewRate * (now - lastTime);
+                x = Math.max(lastOutput - maxChange, Math.min(lastOutput + maxChange, x));
+            }
+            lastTime = now;
+        }
+        lastOutput = x;
+        return x;
+    }
+
+    /**
+     * Reset the slew rate limit, so the output ramps from a value starting now.
+     * Drive commands reset to 0 when they start.
+     *
+     * @param value Output to ramp from
+     */
+    public void reset(double value) {
+        lastOutput = value;
+        lastTime = Timer.getFPGATimestamp();
+    }
+
+    /**
+     * @return The last value returned by {@link #apply(double)}
+     */
+    public double getLastOutput() {
+        return lastOutput;
+    }
+}
@@ -0,0 +1,318 @@
+package frc.tigerlib.interpolable;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed-capacity history of timestamped samples that one thread can write
+ * while other threads read, such as poses from a vision or odometry thread read
+ * by the main robot loop.
+ *
+ * <p>
+ * Each sample holds a fixed number of {@code double} channels, for example x,
+ * y and heading of a pose. The buffer is guarded by a sequence lock: the writer
+ * never waits, and a reader that overlaps a write simply retries, so readers
+ * always interpolate between a matching pair of samples. All storage is
+ * allocated by the constructor.
+ *
+ * <p>
+ * Only one thread may call {@link #add(double, double[])} and
+ * {@link #clear()}. Any number of threads may read.
+ *
+ * @see TimeInterpolatingDoubleBuffer
+ */
+public class ConcurrentTimeInterpolatingBuffer {
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final int capacity_;
+    private final int width_;
+    private final double[] times_;
+    private final double[] values_;
+    private final boolean[] angles_;
+
+    // Odd while a write is in progress
+    private volatile long sequence_;
+    private int head_;
+    private int size_;
+
+    /**
+     * @param capacity Maximum number of samples kept
+     * @param width    Number of channels in each sample
+     */
+    public ConcurrentTimeInterpolatingBuffer(int capacity, int width) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1");
+        }
+
+        capacity_ = capacity;
+        width_ = width;
+        times_ = new double[capacity];
+        values_ = new double[capacity * width];
+        angles_ = new boolean[width];
+    }
+
+    /**
+     * Mark channels as angles in radians. Angle channels are interpolated along
+     * the shorter direction around the circle, and results are on [-π, π].
+     * Should be called before samples are added.
+     *
+     * @param channels Indices of the angle channels
+     */
+    public void setAngleChannels(int... channels) {
+        for (int channel : channels) {
+            angles_[channel] = true;
+        }
+    }
+
+    /**
+     * @return The number of channels in each sample
+     */
+    public int getWidth() {
+        return width_;
+    }
+
+    /**
+     * @return The maximum number of samples kept
+     */
+    public int capacity() {
+        return capacity_;
+    }
+
+    /**
+     * Adds a sample, evicting the oldest sample if the buffer is full. Samples
+     * must be added in increasing time order; older samples are ignored, and a
+     * sample at the same time as the newest one replaces it.
+     *
+     * @param timestamp Time of the sample
+     * @param values    Value of each channel
+     * @return true if the sample was added
+     */
+    public boolean add(double timestamp, double[] values) {
+        if (values.length < width_) {
+            throw new IllegalArgumentException("Expected " + width_ + " values");
+        }
+
+        int slot;
+        boolean grow = false;
+        if (size_ > 0) {
+            int newest = slot(size_ - 1);
+            if (timestamp == times_[newest]) {
+                slot = newest;
+            } else if (timestamp > times_[newest]) {
+                slot = size_ == capacity_ ? head_ : slot(size_);
+                grow = true;
+            } else {
+                return false;
+            }
+        } else if (Double.isNaN(timestamp)) {
+            return false;
+        } else {
+            slot = head_;
+            grow = true;
+        }
+
+        long sequence = sequence_;
+        sequence_ = sequence + 1;
+        VarHandle.storeStoreFence();
+
+        if (grow) {
+            if (size_ == capacity_) {
+                head_ = head_ + 1 == capacity_ ? 0 : head_ + 1;
+            } else {
+                size_++;
+            }
+        }
+        times_[slot] = timestamp;
+        System.arraycopy(values, 0, values_, slot * width_, width_);
+
+        sequence_ = sequence + 2;
+        return true;
+    }
+
+    /** Removes every sample from the buffer. */
+    public void clear() {
+        long sequence = sequence_;
+        sequence_ = sequence + 1;
+        VarHandle.storeStoreFence();
+
+        head_ = 0;
+        size_ = 0;
+
+        sequence_ = sequence + 2;
+    }
+
+    /**
+     * @return The number of samples in the buffer
+     */
+    public int size() {
+        while (true) {
+            long sequence = beginRead();
+            int size = size_;
+            if (validate(sequence)) {
+                return size;
+            }
+        }
+    }
+
+    /**
+     * @return Timestamp of the oldest sample, or NaN if the buffer is empty
+     */
+    public double getOldestTimestamp() {
+        int spins = 0;
+        while (true) {
+            long sequence = beginRead();
+            double timestamp = size_ > 0 ? times_[head_] : Double.NaN;
+            if (validate(sequence)) {
+                return timestamp;
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    /**
+     * Copies the newest sample.
+     *
+     * @param out Array to store each channel of the sample in
+     * @return Timestamp of the sample, or NaN if the buffer is empty
+     */
+    public double getLatest(double[] out) {
+        checkOutput(out);
+
+        int spins = 0;
+        while (true) {
+            long sequence = beginRead();
+            double timestamp = Double.NaN;
+            int size = size_;
+            if (size > 0) {
+                int slot = slot(size - 1);
+                timestamp = times_[slot];
+                System.arraycopy(values_, slot * width_, out, 0, width_);
+            }
+
+            if (validate(sequence)) {
+                return timestamp;
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    /**
+     * Finds the value of every channel at a time, interpolated from the
+     * surrounding samples. Times outside of the buffer return the nearest
+     * sample.
+     *
+     * @param timestamp Time to look up (does not have to match a sample)
+     * @param out       Array to store each channel of the result in
+     * @return false if the buffer is empty
+     */
+    public boolean getInterpolated(double timestamp, double[] out) {
+        checkOutput(out);
+
+        int spins = 0;
+        while (true) {
+            long sequence = beginRead();
+            boolean found = readInterpolated(timestamp, out);
+
+            if (validate(sequence)) {
+                return found;
+            }
+            spins = backOff(spins);
+        }
+    }
+
+    /**
+     * Unsynchronized lookup. The result is only meaningful if no write
+     * overlapped it; every index is kept in bounds so a torn read cannot throw.
+     */
+    private boolean readInterpolated(double timestamp, double[] out) {
+        int size = size_;
+        int head = head_;
+        if (size <= 0 || size > capacity_ || head < 0 || head >= capacity_) {
+            return false;
+        }
+
+        // Binary search for the newest sample at or before the timestamp
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midTime = times_[slot(head, mid)];
+
+            if (midTime < timestamp) {
+                low = mid + 1;
+            } else if (midTime > timestamp) {
+                high = mid - 1;
+            } else {
+                high = mid;
+                break;
+            }
+        }
+
+        if (high < 0) {
+            System.arraycopy(values_, head * width_, out, 0, width_);
+            return true;
+        }
+
+        int lowerSlot = slot(head, high);
+        if (high == size - 1 || times_[lowerSlot] == timestamp) {
+            System.arraycopy(values_, lowerSlot * width_, out, 0, width_);
+            return true;
+        }
+
+        int upperSlot = slot(head, high + 1);
+        double x = (timestamp - times_[lowerSlot]) / (times_[upperSlot] - times_[lowerSlot]);
+        int lowerBase = lowerSlot * width_;
+        int upperBase = upperSlot * width_;
+        for (int i = 0; i < width_; i++) {
+            double lower = values_[lowerBase + i];
+            double upper = values_[upperBase + i];
+            if (angles_[i]) {
+                double delta = Math.IEEEremainder(upper - lower, 2.0 * Math.PI);
+                out[i] = Math.IEEEremainder(lower + delta * x, 2.0 * Math.PI);
+            } else {
+                out[i] = lower + (upper - lower) * x;
+            }
+        }
+        return true;
+    }
+
+    private long beginRead() {
+        long sequence;
+        int spins = 0;
+        while (((sequence = sequence_) & 1L) != 0) {
+            spins = backOff(spins);
+        }
+        return sequence;
+    }
+
+    private boolean validate(long sequence) {
+        VarHandle.loadLoadFence();
+        return sequence == sequence_;
+    }
+
+    private static int backOff(int spins) {
+        if (spins < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+            return spins + 1;
+        }
+        Thread.yield();
+        return spins;
+    }
+
+    private void checkOutput(double[] out) {
+        if (out.length < width_) {
+            throw new IllegalArgumentException("Output must hold " + width_ + " values");
+        }
+    }
+
+    private int slot(int index) {
+        return slot(head_, index);
+    }
+
+    private int slot(int head, int index) {
+        int slot = head + index;
+        return slot >= capacity_ ? slot - capacity_ : slot;
+    }
+}
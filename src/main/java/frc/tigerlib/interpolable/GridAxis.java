@@ -0,0 +1,85 @@
+package frc.tigerlib.interpolable;
+
+import java.util.Arrays;
+
+/**
+ * One axis of a gridded table. Finds the grid cell surrounding a coordinate by
+ * index arithmetic when the points are evenly spaced, and by binary search
+ * otherwise.
+ *
+ * @see InterpolatingTable2d
+ * @see InterpolatingTable3d
+ */
+final class GridAxis {
+    private static final double UNIFORM_TOLERANCE = 1e-9;
+
+    final double[] points_;
+    private final boolean uniform_;
+    private final double inverseStep_;
+
+    GridAxis(double[] points, String name) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException(name + " axis must have at least 2 points");
+        }
+        for (int i = 1; i < points.length; i++) {
+            if (!(points[i] > points[i - 1])) {
+                throw new IllegalArgumentException(name + " axis must be strictly increasing");
+            }
+        }
+
+        points_ = points.clone();
+
+        double step = (points_[points_.length - 1] - points_[0]) / (points_.length - 1);
+        boolean uniform = true;
+        for (int i = 1; i < points_.length && uniform; i++) {
+            uniform = Math.abs(points_[i] - points_[0] - i * step) <= UNIFORM_TOLERANCE * Math.max(1.0, Math.abs(step));
+        }
+
+        uniform_ = uniform;
+        inverseStep_ = 1.0 / step;
+    }
+
+    int length() {
+        return points_.length;
+    }
+
+    /**
+     * @param value Coordinate along the axis
+     * @return Index of the lower point of the cell containing the coordinate,
+     *         clamped to the first and last cells
+     */
+    int lowerIndex(double value) {
+        int last = points_.length - 2;
+        if (!(value > points_[0])) {
+            return 0;
+        } else if (value >= points_[last + 1]) {
+            return last;
+        }
+
+        if (uniform_) {
+            return Math.min((int) ((value - points_[0]) * inverseStep_), last);
+        }
+
+        int index = Arrays.binarySearch(points_, value);
+        if (index >= 0) {
+            return Math.min(index, last);
+        }
+        return -(index + 1) - 1;
+    }
+
+    /**
+     * @param value Coordinate along the axis
+     * @param lower Cell found by {@link #lowerIndex(double)}
+     * @return How far between the lower and upper points of the cell the
+     *         coordinate lies, on [0, 1]
+     */
+    double fraction(double value, int lower) {
+        double x = (value - points_[lower]) / (points_[lower + 1] - points_[lower]);
+        if (!(x > 0.0)) {
+            return 0.0;
+        } else if (x > 1.0) {
+            return 1.0;
+        }
+        return x;
+    }
+}
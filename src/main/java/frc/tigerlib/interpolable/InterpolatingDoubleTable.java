@@ -0,0 +1,566 @@
+package frc.tigerlib.interpolable;
+
+import java.util.Arrays;
+
+/**
+ * A primitive version of {@link InterpolatingTreeMap} for tables with
+ * {@code double} keys and values. Keys and values are kept in sorted arrays
+ * and found with a binary search, so looking up a value does not box or
+ * allocate.
+ *
+ * <p>
+ * Like {@link InterpolatingTreeMap}, requests for keys outside of the table
+ * return the value of the nearest key.
+ *
+ * <p>
+ * Values between points are found with straight lines by default. The
+ * smoother curves in {@link InterpolationMode} are also available; their
+ * coefficients are calculated once after the table changes, so a lookup is
+ * still one binary search and a few multiply-adds.
+ *
+ * @see InterpolatingTreeMap
+ */
+public class InterpolatingDoubleTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    final int max_;
+    double[] keys_;
+    double[] values_;
+    int size_;
+
+    private InterpolationMode mode_ = InterpolationMode.kLinear;
+    private boolean dirty_ = true;
+    // Per-segment polynomial coefficients, y = a + b*dx + c*dx^2 + d*dx^3, where
+    // a is the value at the lower point
+    private double[] b_ = new double[0];
+    private double[] c_ = new double[0];
+    private double[] d_ = new double[0];
+    // Slopes or second derivatives at each point, depending on mode
+    private double[] m_ = new double[0];
+
+    /**
+     * Create a table that holds at most {@code maximumSize} points. When the
+     * table is full, the point with the lowest key is removed to make room.
+     *
+     * @param maximumSize Maximum number of points, or 0 for no limit
+     */
+    public InterpolatingDoubleTable(int maximumSize) {
+        max_ = maximumSize;
+
+        int capacity = maximumSize > 0 ? maximumSize : DEFAULT_CAPACITY;
+        keys_ = new double[capacity];
+        values_ = new double[capacity];
+    }
+
+    public InterpolatingDoubleTable() {
+        this(0);
+    }
+
+    /**
+     * Builds a table from keys and values that are already sorted, in a single
+     * O(n) copy instead of one {@link #put} at a time.
+     *
+     * @param keys   Keys in strictly increasing order
+     * @param values Value for each key
+     * @return The new table
+     */
+    public static InterpolatingDoubleTable fromSorted(double[] keys, double[] values) {
+        return fromSorted(keys, values, keys.length);
+    }
+
+    /**
+     * Builds a table from the first {@code length} keys and values of arrays
+     * that are already sorted.
+     *
+     * @param keys   Keys in strictly increasing order
+     * @param values Value for each key
+     * @param length Number of points to copy
+     * @return The new table
+     */
+    public static InterpolatingDoubleTable fromSorted(double[] keys, double[] values, int length) {
+        if (length > keys.length || length > values.length) {
+            throw new IllegalArgumentException("Keys and values must hold at least " + length + " points");
+        }
+        for (int i = 0; i < length; i++) {
+            if (Double.isNaN(keys[i]) || (i > 0 && !(keys[i] > keys[i - 1]))) {
+                throw new IllegalArgumentException("Keys must be in strictly increasing order");
+            }
+        }
+
+        InterpolatingDoubleTable table = new InterpolatingDoubleTable(0);
+        table.keys_ = Arrays.copyOf(keys, Math.max(length, 1));
+        table.values_ = Arrays.copyOf(values, Math.max(length, 1));
+        table.size_ = length;
+        return table;
+    }
+
+    /**
+     * Set the curve used between points in the table.
+     *
+     * @param mode Interpolation mode. Defaults to
+     *             {@link InterpolationMode#kLinear}.
+     */
+    public void setMode(InterpolationMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode cannot be null");
+        }
+
+        mode_ = mode;
+        dirty_ = true;
+    }
+
+    /**
+     * @return The curve used between points in the table
+     */
+    public InterpolationMode getMode() {
+        return mode_;
+    }
+
+    /**
+     * Inserts a key value pair, and trims the table if a max size is specified.
+     * If the key is already in the table, its value is replaced.
+     *
+     * @param key   Key for inserted data
+     * @param value Value for inserted data
+     */
+    public void put(double key, double value) {
+        if (Double.isNaN(key)) {
+            throw new IllegalArgumentException("Key cannot be NaN");
+        }
+
+        int index = Arrays.binarySearch(keys_, 0, size_, key);
+        dirty_ = true;
+        if (index >= 0) {
+            values_[index] = value;
+            return;
+        }
+
+        index = -(index + 1);
+
+        if (max_ > 0 && max_ <= size_) {
+            // "Prune" the table if it is oversize
+            if (index > 0) {
+                System.arraycopy(keys_, 1, keys_, 0, index - 1);
+                System.arraycopy(values_, 1, values_, 0, index - 1);
+                index--;
+            }
+        } else {
+            if (size_ == keys_.length) {
+                keys_ = Arrays.copyOf(keys_, size_ * 2);
+                values_ = Arrays.copyOf(values_, size_ * 2);
+            }
+
+            System.arraycopy(keys_, index, keys_, index + 1, size_ - index);
+            System.arraycopy(values_, index, values_, index + 1, size_ - index);
+            size_++;
+        }
+
+        keys_[index] = key;
+        values_[index] = value;
+    }
+
+    /**
+     * Removes a key and its value from the table.
+     *
+     * @param key Key to remove
+     * @return true if the key was in the table
+     */
+    public boolean remove(double key) {
+        int index = Arrays.binarySearch(keys_, 0, size_, key);
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(keys_, index + 1, keys_, index, size_ - index - 1);
+        System.arraycopy(values_, index + 1, values_, index, size_ - index - 1);
+        size_--;
+        dirty_ = true;
+        return true;
+    }
+
+    /** Removes every point from the table. */
+    public void clear() {
+        size_ = 0;
+        dirty_ = true;
+    }
+
+    /**
+     * @return The number of points in the table
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * @return true if the table has no points
+     */
+    public boolean isEmpty() {
+        return size_ == 0;
+    }
+
+    /**
+     * @param key Key to look for
+     * @return true if the key is in the table
+     */
+    public boolean containsKey(double key) {
+        return Arrays.binarySearch(keys_, 0, size_, key) >= 0;
+    }
+
+    /**
+     * @param key Key to look up
+     * @return The value stored for the key, or NaN if the key is not in the
+     *         table
+     */
+    public double get(double key) {
+        int index = Arrays.binarySearch(keys_, 0, size_, key);
+        return index >= 0 ? values_[index] : Double.NaN;
+    }
+
+    /**
+     * @return The lowest key in the table, or NaN if the table is empty
+     */
+    public double firstKey() {
+        return size_ > 0 ? keys_[0] : Double.NaN;
+    }
+
+    /**
+     * @return The highest key in the table, or NaN if the table is empty
+     */
+    public double lastKey() {
+        return size_ > 0 ? keys_[size_ - 1] : Double.NaN;
+    }
+
+    /**
+     * @param index Position of the point in key order
+     * @return The key of the point
+     */
+    public double keyAt(int index) {
+        checkIndex(index);
+        return keys_[index];
+    }
+
+    /**
+     * @param index Position of the point in key order
+     * @return The value of the point
+     */
+    public double valueAt(int index) {
+        checkIndex(index);
+        return values_[index];
+    }
+
+    /**
+     * @param key Lookup for a value (does not have to exist)
+     * @return The value at the key, interpolated from the surrounding points if
+     *         the key is not in the table. Keys past either end of the table
+     *         return the value of the nearest point. NaN if the table is empty.
+     */
+    public double getInterpolated(double key) {
+        if (size_ == 0) {
+            return Double.NaN;
+        }
+
+        int index = Arrays.binarySearch(keys_, 0, size_, key);
+        if (index >= 0) {
+            return values_[index];
+        }
+
+        // if attempting interpolation at ends of table, return the nearest data point
+        int upper = -(index + 1);
+        if (upper == 0) {
+            return values_[0];
+        } else if (upper == size_) {
+            return values_[size_ - 1];
+        }
+
+        return interpolateSegment(upper - 1, key);
+    }
+
+    /**
+     * Looks up many keys in one pass over the table. Runs in O(n + m) for n
+     * points and m keys, and does not allocate.
+     *
+     * @param keys Lookups in increasing order
+     * @param out  Array to store the value for each key in, at the same index
+     * @see #getInterpolated(double)
+     */
+    public void getInterpolatedSorted(double[] keys, double[] out) {
+        checkBatch(keys, out);
+
+        int lower = -1;
+        for (int i = 0; i < keys.length; i++) {
+            double key = keys[i];
+            if (i > 0 && key < keys[i - 1]) {
+                throw new IllegalArgumentException("Keys must be in increasing order");
+            }
+
+            while (lower + 1 < size_ && keys_[lower + 1] <= key) {
+                lower++;
+            }
+            out[i] = valueAfter(lower, key);
+        }
+    }
+
+    /**
+     * Looks up many keys in any order. Each search starts from the point found
+     * for the previous key, so keys that are near each other skip most of the
+     * search. Does not allocate.
+     *
+     * @param keys Lookups in any order
+     * @param out  Array to store the value for each key in, at the same index
+     * @see #getInterpolatedSorted(double[], double[])
+     */
+    public void getInterpolatedBatch(double[] keys, double[] out) {
+        checkBatch(keys, out);
+
+        int hint = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int lower = floorIndexNear(keys[i], hint);
+            out[i] = valueAfter(lower, keys[i]);
+            hint = Math.max(lower, 0);
+        }
+    }
+
+    /**
+     * @param lower Index of the highest key at or below the requested key, or
+     *              -1 if there is none
+     * @param key   Requested key
+     * @return The interpolated value at the key
+     */
+    private double valueAfter(int lower, double key) {
+        if (size_ == 0) {
+            return Double.NaN;
+        } else if (lower < 0) {
+            return values_[0];
+        } else if (lower == size_ - 1 || keys_[lower] == key) {
+            return values_[lower];
+        }
+        return interpolateSegment(lower, key);
+    }
+
+    /**
+     * Galloping search for the highest key at or below {@code key}, starting
+     * from the index {@code hint}.
+     *
+     * @return The index of the key, or -1 if every key is higher
+     */
+    private int floorIndexNear(double key, int hint) {
+        if (size_ == 0) {
+            return -1;
+        }
+        hint = Math.min(hint, size_ - 1);
+
+        // Narrow to low <= answer < high, where keys_[low] <= key (or low == -1)
+        // and keys_[high] > key (or high == size_)
+        int low;
+        int high;
+        int step = 1;
+        if (keys_[hint] <= key) {
+            low = hint;
+            high = hint + 1;
+            while (high < size_ && keys_[high] <= key) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            high = Math.min(high, size_);
+        } else {
+            high = hint;
+            low = hint - 1;
+            while (low >= 0 && keys_[low] > key) {
+                high = low;
+                step <<= 1;
+                low = high - step;
+            }
+            low = Math.max(low, -1);
+        }
+
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (keys_[mid] <= key) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param lower Index of the point at the start of the segment
+     * @param key   Key between that point and the next
+     * @return The value of the segment's curve at the key
+     */
+    private double interpolateSegment(int lower, double key) {
+        if (mode_ == InterpolationMode.kLinear) {
+            double x = (key - keys_[lower]) / (keys_[lower + 1] - keys_[lower]);
+            return values_[lower] + (values_[lower + 1] - values_[lower]) * x;
+        }
+
+        if (dirty_) {
+            computeCoefficients();
+        }
+
+        double dx = key - keys_[lower];
+        return values_[lower] + dx * (b_[lower] + dx * (c_[lower] + dx * d_[lower]));
+    }
+
+    private static void checkBatch(double[] keys, double[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output must hold " + keys.length + " values");
+        }
+    }
+
+    /**
+     * Resample this table into evenly spaced points for constant-time lookups.
+     * The table should not be changed after it is baked; later changes are not
+     * reflected in the baked copy.
+     *
+     * @param resolution Number of points in the new table, at least 2
+     * @return The baked table
+     * @see UniformInterpolatingTable#bake(InterpolatingDoubleTable, int)
+     */
+    public UniformInterpolatingTable bake(int resolution) {
+        return UniformInterpolatingTable.bake(this, resolution);
+    }
+
+    /**
+     * Calculates the polynomial for every segment of the table for the current
+     * mode. Called on the first lookup after the table or mode changes.
+     */
+    private void computeCoefficients() {
+        if (b_.length < keys_.length) {
+            b_ = new double[keys_.length];
+            c_ = new double[keys_.length];
+            d_ = new double[keys_.length];
+            m_ = new double[keys_.length];
+        }
+
+        switch (mode_) {
+            case kCubicHermite:
+                computeAverageSlopes();
+                computeHermiteCoefficients();
+                break;
+            case kMonotoneCubic:
+                computeAverageSlopes();
+                limitSlopes();
+                computeHermiteCoefficients();
+                break;
+            case kNaturalSpline:
+                computeNaturalSpline();
+                break;
+            default:
+                break;
+        }
+
+        dirty_ = false;
+    }
+
+    /** Sets the slope at each point to the average of the secants around it. */
+    private void computeAverageSlopes() {
+        int last = size_ - 1;
+        if (last < 1) {
+            m_[0] = 0.0;
+            return;
+        }
+
+        m_[0] = secant(0);
+        m_[last] = secant(last - 1);
+        for (int i = 1; i < last; i++) {
+            m_[i] = (secant(i - 1) + secant(i)) / 2.0;
+        }
+    }
+
+    /** Fritsch–Carlson limiting of the slopes so that no segment overshoots. */
+    private void limitSlopes() {
+        int last = size_ - 1;
+        for (int i = 1; i < last; i++) {
+            double before = secant(i - 1);
+            double after = secant(i);
+            if (before * after <= 0.0) {
+                // Local extremum or flat spot
+                m_[i] = 0.0;
+            }
+        }
+
+        for (int i = 0; i < last; i++) {
+            double delta = secant(i);
+            if (delta == 0.0) {
+                m_[i] = 0.0;
+                m_[i + 1] = 0.0;
+                continue;
+            }
+
+            double alpha = m_[i] / delta;
+            double beta = m_[i + 1] / delta;
+            if (alpha < 0.0) {
+                m_[i] = 0.0;
+                alpha = 0.0;
+            }
+            if (beta < 0.0) {
+                m_[i + 1] = 0.0;
+                beta = 0.0;
+            }
+
+            double magnitude = alpha * alpha + beta * beta;
+            if (magnitude > 9.0) {
+                double tau = 3.0 / Math.sqrt(magnitude);
+                m_[i] = tau * alpha * delta;
+                m_[i + 1] = tau * beta * delta;
+            }
+        }
+    }
+
+    /** Converts the slopes in m_ into segment coefficients. */
+    private void computeHermiteCoefficients() {
+        for (int i = 0; i < size_ - 1; i++) {
+            double h = keys_[i + 1] - keys_[i];
+            double delta = secant(i);
+            b_[i] = m_[i];
+            c_[i] = (3.0 * delta - 2.0 * m_[i] - m_[i + 1]) / h;
+            d_[i] = (m_[i] + m_[i + 1] - 2.0 * delta) / (h * h);
+        }
+    }
+
+    /**
+     * Solves for the second derivative at each point with the Thomas algorithm,
+     * then converts them into segment coefficients.
+     */
+    private void computeNaturalSpline() {
+        int last = size_ - 1;
+        m_[0] = 0.0;
+        d_[0] = 0.0;
+        m_[last] = 0.0;
+
+        // Forward sweep. d_ holds the modified super-diagonal and m_ the
+        // modified right hand side until the back substitution.
+        for (int i = 1; i < last; i++) {
+            double hLower = keys_[i] - keys_[i - 1];
+            double hUpper = keys_[i + 1] - keys_[i];
+            double diagonal = 2.0 * (hLower + hUpper) - hLower * d_[i - 1];
+            double rhs = 6.0 * (secant(i) - secant(i - 1)) - hLower * m_[i - 1];
+            d_[i] = hUpper / diagonal;
+            m_[i] = rhs / diagonal;
+        }
+
+        for (int i = last - 1; i > 0; i--) {
+            m_[i] -= d_[i] * m_[i + 1];
+        }
+
+        for (int i = 0; i < last; i++) {
+            double h = keys_[i + 1] - keys_[i];
+            b_[i] = secant(i) - h * (2.0 * m_[i] + m_[i + 1]) / 6.0;
+            c_[i] = m_[i] / 2.0;
+            d_[i] = (m_[i + 1] - m_[i]) / (6.0 * h);
+        }
+    }
+
+    private double secant(int index) {
+        return (values_[index + 1] - values_[index]) / (keys_[index + 1] - keys_[index]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size_) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size_);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A lookup table with two inputs, such as a shooter hood angle that depends on
+ * both distance and robot velocity. Values are defined on a grid of points and
+ * estimated between them with bilinear interpolation.
+ *
+ * <p>
+ * Values are stored in a single primitive array. A lookup searches each axis
+ * once (or indexes directly into evenly spaced axes) and does not allocate.
+ * Inputs outside the grid are clamped to its edges.
+ *
+ * @see InterpolatingTable3d
+ */
+public class InterpolatingTable2d {
+    private final GridAxis x_;
+    private final GridAxis y_;
+    private final double[] values_;
+
+    /**
+     * Create a table with every value set to 0.
+     *
+     * @param xPoints Grid points along the first input, strictly increasing
+     * @param yPoints Grid points along the second input, strictly increasing
+     */
+    public InterpolatingTable2d(double[] xPoints, double[] yPoints) {
+        x_ = new GridAxis(xPoints, "X");
+        y_ = new GridAxis(yPoints, "Y");
+        values_ = new double[x_.length() * y_.length()];
+    }
+
+    /**
+     * Create a table with the given values.
+     *
+     * @param xPoints Grid points along the first input, strictly increasing
+     * @param yPoints Grid points along the second input, strictly increasing
+     * @param values  Values at each grid point, indexed by {@code [x][y]}
+     */
+    public InterpolatingTable2d(double[] xPoints, double[] yPoints, double[][] values) {
+        this(xPoints, yPoints);
+
+        if (values.length != x_.length()) {
+            throw new IllegalArgumentException("Values must have one row per X point");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].length != y_.length()) {
+                throw new IllegalArgumentException("Each row of values must have one entry per Y point");
+            }
+            System.arraycopy(values[i], 0, values_, i * y_.length(), y_.length());
+        }
+    }
+
+    /**
+     * Set the value at a grid point.
+     *
+     * @param xIndex Index of the point along the first input
+     * @param yIndex Index of the point along the second input
+     * @param value  Value at the grid point
+     */
+    public void set(int xIndex, int yIndex, double value) {
+        values_[index(xIndex, yIndex)] = value;
+    }
+
+    /**
+     * @param xIndex Index of the point along the first input
+     * @param yIndex Index of the point along the second input
+     * @return The value at the grid point
+     */
+    public double get(int xIndex, int yIndex) {
+        return values_[index(xIndex, yIndex)];
+    }
+
+    /**
+     * @param x First input
+     * @param y Second input
+     * @return The value at the inputs, interpolated from the surrounding grid
+     *         points
+     */
+    public double getInterpolated(double x, double y) {
+        int i = x_.lowerIndex(x);
+        int j = y_.lowerIndex(y);
+        double fx = x_.fraction(x, i);
+        double fy = y_.fraction(y, j);
+
+        int stride = y_.length();
+        int base = i * stride + j;
+
+        double v00 = values_[base];
+        double v01 = values_[base + 1];
+        double v10 = values_[base + stride];
+        double v11 = values_[base + stride + 1];
+
+        double v0 = v00 + (v01 - v00) * fy;
+        double v1 = v10 + (v11 - v10) * fy;
+        return v0 + (v1 - v0) * fx;
+    }
+
+    private int index(int xIndex, int yIndex) {
+        if (xIndex < 0 || xIndex >= x_.length() || yIndex < 0 || yIndex >= y_.length()) {
+            throw new IndexOutOfBoundsException("Grid point (" + xIndex + ", " + yIndex + ") out of bounds");
+        }
+        return xIndex * y_.length() + yIndex;
+    }
+}
@@ -0,0 +1,98 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A lookup table with three inputs. Values are defined on a grid of points and
+ * estimated between them with trilinear interpolation.
+ *
+ * <p>
+ * Values are stored in a single primitive array. A lookup searches each axis
+ * once (or indexes directly into evenly spaced axes) and does not allocate.
+ * Inputs outside the grid are clamped to its edges.
+ *
+ * @see InterpolatingTable2d
+ */
+public class InterpolatingTable3d {
+    private final GridAxis x_;
+    private final GridAxis y_;
+    private final GridAxis z_;
+    private final double[] values_;
+
+    /**
+     * Create a table with every value set to 0.
+     *
+     * @param xPoints Grid points along the first input, strictly increasing
+     * @param yPoints Grid points along the second input, strictly increasing
+     * @param zPoints Grid points along the third input, strictly increasing
+     */
+    public InterpolatingTable3d(double[] xPoints, double[] yPoints, double[] zPoints) {
+        x_ = new GridAxis(xPoints, "X");
+        y_ = new GridAxis(yPoints, "Y");
+        z_ = new GridAxis(zPoints, "Z");
+        values_ = new double[x_.length() * y_.length() * z_.length()];
+    }
+
+    /**
+     * Set the value at a grid point.
+     *
+     * @param xIndex Index of the point along the first input
+     * @param yIndex Index of the point along the second input
+     * @param zIndex Index of the point along the third input
+     * @param value  Value at the grid point
+     */
+    public void set(int xIndex, int yIndex, int zIndex, double value) {
+        values_[index(xIndex, yIndex, zIndex)] = value;
+    }
+
+    /**
+     * @param xIndex Index of the point along the first input
+     * @param yIndex Index of the point along the second input
+     * @param zIndex Index of the point along the third input
+     * @return The value at the grid point
+     */
+    public double get(int xIndex, int yIndex, int zIndex) {
+        return values_[index(xIndex, yIndex, zIndex)];
+    }
+
+    /**
+     * @param x First input
+     * @param y Second input
+     * @param z Third input
+     * @return The value at the inputs, interpolated from the surrounding grid
+     *         points
+     */
+    public double getInterpolated(double x, double y, double z) {
+        int i = x_.lowerIndex(x);
+        int j = y_.lowerIndex(y);
+        int k = z_.lowerIndex(z);
+        double fx = x_.fraction(x, i);
+        double fy = y_.fraction(y, j);
+        double fz = z_.fraction(z, k);
+
+        int zStride = 1;
+        int yStride = z_.length();
+        int xStride = y_.length() * yStride;
+        int base = i * xStride + j * yStride + k;
+
+        double v00 = lerp(values_[base], values_[base + zStride], fz);
+        double v01 = lerp(values_[base + yStride], values_[base + yStride + zStride], fz);
+        double v10 = lerp(values_[base + xStride], values_[base + xStride + zStride], fz);
+        double v11 = lerp(values_[base + xStride + yStride], values_[base + xStride + yStride + zStride], fz);
+
+        double v0 = lerp(v00, v01, fy);
+        double v1 = lerp(v10, v11, fy);
+        return lerp(v0, v1, fx);
+    }
+
+    private static double lerp(double lower, double upper, double x) {
+        return lower + (upper - lower) * x;
+    }
+
+    private int index(int xIndex, int yIndex, int zIndex) {
+        if (xIndex < 0 || xIndex >= x_.length() || yIndex < 0 || yIndex >= y_.length() || zIndex < 0
+                || zIndex >= z_.length()) {
+            throw new IndexOutOfBoundsException(
+                    "Grid point (" + xIndex + ", " + yIndex + ", " + zIndex + ") out of bounds");
+        }
+        return (xIndex * y_.length() + yIndex) * z_.length() + zIndex;
+    }
+}
@@ -0,0 +1,206 @@
+package frc.tigerlib.interpolable;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads {@link InterpolatingDoubleTable}s from files, usually calibration
+ * tables in the deploy directory.
+ *
+ * <p>
+ * Two formats are supported:
+ * <ul>
+ * <li>CSV: one {@code key,value} pair per line. Blank lines, lines starting
+ * with {@code #} and a non-numeric header line are skipped.</li>
+ * <li>Binary: the 4 byte magic {@code TLUT}, a 4 byte version (1), a 4 byte
+ * point count {@code n}, then {@code n} keys and {@code n} values as 8 byte
+ * doubles. Every field is big-endian. Keys must be strictly increasing. The
+ * file is memory mapped and copied in bulk, so it is the fastest format for
+ * large tables. {@link #writeBinary(InterpolatingDoubleTable, Path)} converts a
+ * table into this format.</li>
+ * </ul>
+ */
+public final class InterpolatingTableLoader {
+    private static final int MAGIC = 0x544C5554; // "TLUT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    private InterpolatingTableLoader() {}
+
+    /**
+     * Load a table from the deploy directory, choosing the format by extension.
+     * Files ending in {@code .csv} are read as CSV and all others as binary.
+     *
+     * @param fileName Path of the file, relative to the deploy directory
+     * @return The loaded table
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static InterpolatingDoubleTable loadFromDeploy(String fileName) throws IOException {
+        Path path = Filesystem.getDeployDirectory().toPath().resolve(fileName);
+        if (fileName.toLowerCase().endsWith(".csv")) {
+            return loadCsv(path);
+        } else {
+            return loadBinary(path);
+        }
+    }
+
+    /**
+     * Load a table from a CSV file of {@code key,value} lines. Points do not
+     * need to be sorted; if a key appears more than once, the last value wins.
+     *
+     * @param path File to read
+     * @return The loaded table
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static InterpolatingDoubleTable loadCsv(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+
+        double[] keys = new double[64];
+        double[] values = new double[64];
+        int count = 0;
+        boolean sorted = true;
+
+        int lineNumber = 0;
+        boolean firstLine = true;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            lineNumber++;
+
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8).trim();
+            start = end + 1;
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            boolean header = firstLine;
+            firstLine = false;
+
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                throw new IOException(path + ":" + lineNumber + ": expected key,value");
+            }
+
+            double key;
+            double value;
+            try {
+                key = Double.parseDouble(line.substring(0, comma).trim());
+                value = Double.parseDouble(line.substring(comma + 1).trim());
+            } catch (NumberFormatException e) {
+                if (header) {
+                    // Header line, the first line that isn't blank or a comment
+                    continue;
+                }
+                throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+
+            if (Double.isNaN(key)) {
+                throw new IOException(path + ":" + lineNumber + ": key cannot be NaN");
+            }
+
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            if (count > 0 && !(key > keys[count - 1])) {
+                sorted = false;
+            }
+
+            keys[count] = key;
+            values[count] = value;
+            count++;
+        }
+
+        if (sorted) {
+            return InterpolatingDoubleTable.fromSorted(keys, values, count);
+        }
+
+        InterpolatingDoubleTable table = new InterpolatingDoubleTable();
+        for (int i = 0; i < count; i++) {
+            table.put(keys[i], values[i]);
+        }
+        return table;
+    }
+
+    /**
+     * Load a table from a binary file.
+     *
+     * @param path File to read
+     * @return The loaded table
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static InterpolatingDoubleTable loadBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException(path + ": file too short for header");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + ": not a lookup table file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + ": unsupported version " + version);
+            }
+            int count = buffer.getInt();
+            if (count < 0 || fileSize != HEADER_BYTES + 16L * count) {
+                throw new IOException(path + ": expected " + count + " points but file size is " + fileSize);
+            }
+
+            double[] keys = new double[count];
+            double[] values = new double[count];
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            doubles.get(keys);
+            doubles.get(values);
+
+            try {
+                return InterpolatingDoubleTable.fromSorted(keys, values);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(path + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Write a table in the binary format read by {@link #loadBinary(Path)}.
+     *
+     * @param table Table to write
+     * @param path  File to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBinary(InterpolatingDoubleTable table, Path path) throws IOException {
+        int count = table.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 16 * count).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        doubles.put(table.keys_, 0, count);
+        doubles.put(table.values_, 0, count);
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
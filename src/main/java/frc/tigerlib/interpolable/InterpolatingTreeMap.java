@@ -1,6 +1,14 @@
 package frc.tigerlib.interpolable;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 
 /**
@@ -25,6 +33,52 @@ public class InterpolatingTreeMap<K extends InverseInterpolable<K> & Comparable<
         this(0);
     }
 
+    /**
+     * Builds a map from keys and values that are already sorted. The tree is
+     * built in a single O(n) pass instead of one {@link #put} at a time.
+     *
+     * @param <K>    The type of the key
+     * @param <V>    The type of the value
+     * @param keys   Keys in strictly increasing order
+     * @param values Value for each key
+     * @return The new map
+     */
+    public static <K extends InverseInterpolable<K> & Comparable<K>, V extends Interpolable<V>>
+            InterpolatingTreeMap<K, V> fromSorted(K[] keys, V[] values) {
+        return fromSorted(0, keys, values);
+    }
+
+    /**
+     * Builds a map from keys and values that are already sorted. The tree is
+     * built in a single O(n) pass instead of one {@link #put} at a time. If
+     * there are more points than the maximum size, only the points with the
+     * highest keys are kept, as if they had been put in order.
+     *
+     * @param <K>         The type of the key
+     * @param <V>         The type of the value
+     * @param maximumSize Maximum size of the map, or 0 for no limit
+     * @param keys        Keys in strictly increasing order
+     * @param values      Value for each key
+     * @return The new map
+     */
+    public static <K extends InverseInterpolable<K> & Comparable<K>, V extends Interpolable<V>>
+            InterpolatingTreeMap<K, V> fromSorted(int maximumSize, K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must be the same length");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be in strictly increasing order");
+            }
+        }
+
+        int start = maximumSize > 0 ? Math.max(0, keys.length - maximumSize) : 0;
+
+        InterpolatingTreeMap<K, V> map = new InterpolatingTreeMap<>(maximumSize);
+        map.putAllSorted(new SortedArrayMap<>(keys, values, start, keys.length));
+        return map;
+    }
+
     /**
      * Inserts a key value pair, and trims the tree if a max size is specified
      *
@@ -45,9 +99,26 @@ public class InterpolatingTreeMap<K extends InverseInterpolable<K> & Comparable<
         return value;
     }
 
+    /**
+     * Copies all of the mappings from the specified map to this map, trimming
+     * the tree as each one is added if a max size is specified. Copying a
+     * sorted map into an empty, unlimited map builds the tree in O(n).
+     *
+     * @param map Mappings to be stored in this map
+     */
     @Override
     public void putAll(Map<? extends K, ? extends V> map) {
-        System.out.println("Unimplemented Method");
+        if (max_ > 0) {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        } else {
+            super.putAll(map);
+        }
+    }
+
+    private void putAllSorted(SortedMap<K, V> map) {
+        super.putAll(map);
     }
 
     /**
@@ -79,4 +150,249 @@ public class InterpolatingTreeMap<K extends InverseInterpolable<K> & Comparable<
             return gotval;
         }
     }
+
+    /**
+     * Looks up many keys in one pass over the map. Runs in O(n + m) for n
+     * entries and m keys.
+     *
+     * <p>
+     * If an entry of {@code out} already holds a {@link MutableInterpolable}
+     * value, the result is written into it instead of allocating a new value.
+     * Other entries are replaced with a new value, never one held by the map.
+     *
+     * @param keys Lookups in increasing order
+     * @param out  Array to store the value for each key in, at the same index.
+     *             Filled with null if the map is empty.
+     */
+    public void getInterpolatedSorted(K[] keys, V[] out) {
+        checkBatch(keys, out);
+        if (isEmpty()) {
+            Arrays.fill(out, 0, keys.length, null);
+            return;
+        }
+
+        // TreeMap's entry iterator hands out its own nodes, so walking it does
+        // not allocate per entry
+        Iterator<Map.Entry<K, V>> entries = entrySet().iterator();
+        Map.Entry<K, V> lower = null;
+        Map.Entry<K, V> upper = entries.next();
+
+        for (int i = 0; i < keys.length; i++) {
+            K key = keys[i];
+            if (i > 0 && keys[i - 1].compareTo(key) > 0) {
+                throw new IllegalArgumentException("Keys must be in increasing order");
+            }
+
+            while (upper != null && upper.getKey().compareTo(key) <= 0) {
+                lower = upper;
+                upper = entries.hasNext() ? entries.next() : null;
+            }
+
+            if (lower == null) {
+                store(out, i, upper.getValue());
+            } else if (upper == null || lower.getKey().compareTo(key) == 0) {
+                store(out, i, lower.getValue());
+            } else {
+                store(out, i, lower.getKey(), lower.getValue(), upper.getKey(), upper.getValue(), key);
+            }
+        }
+    }
+
+    /**
+     * Looks up many keys in any order. Each search starts from the entries
+     * found for the previous key, so a key between the same two entries as the
+     * one before it needs no search at all, and other keys cost one search of
+     * the tree. Nothing is copied, so a few keys against a large map cost no
+     * more than {@link #getInterpolated(InverseInterpolable)}.
+     *
+     * <p>
+     * If an entry of {@code out} already holds a {@link MutableInterpolable}
+     * value, the result is written into it instead of allocating a new value.
+     * Other entries are replaced with a new value, never one held by the map.
+     *
+     * @param keys Lookups in any order
+     * @param out  Array to store the value for each key in, at the same index.
+     *             Filled with null if the map is empty.
+     * @see #getInterpolatedSorted(InverseInterpolable[], Interpolable[])
+     */
+    public void getInterpolatedBatch(K[] keys, V[] out) {
+        checkBatch(keys, out);
+        if (isEmpty()) {
+            Arrays.fill(out, 0, keys.length, null);
+            return;
+        }
+
+        // The entries around the previous key, either of which may be null
+        // past the ends of the map
+        K lowerKey = null;
+        K upperKey = null;
+        V lowerValue = null;
+        V upperValue = null;
+        boolean found = false;
+
+        for (int i = 0; i < keys.length; i++) {
+            K key = keys[i];
+            if (!found
+                    || (lowerKey != null && lowerKey.compareTo(key) > 0)
+                    || (upperKey != null && upperKey.compareTo(key) <= 0)) {
+                // Keys only, since the entry lookups allocate
+                lowerKey = floorKey(key);
+                upperKey = higherKey(key);
+                lowerValue = lowerKey == null ? null : get(lowerKey);
+                upperValue = upperKey == null ? null : get(upperKey);
+                found = true;
+            }
+
+            if (lowerKey == null) {
+                store(out, i, upperValue);
+            } else if (upperKey == null || lowerKey.compareTo(key) == 0) {
+                store(out, i, lowerValue);
+            } else {
+                store(out, i, lowerKey, lowerValue, upperKey, upperValue, key);
+            }
+        }
+    }
+
+    /**
+     * Stores a copy of an existing value as a batch result. The map's own value
+     * is never handed out, since a later batch would write into it.
+     */
+    @SuppressWarnings("unchecked")
+    private void store(V[] out, int index, V value) {
+        if (out[index] instanceof MutableInterpolable) {
+            ((MutableInterpolable<V>) out[index]).set(value);
+        } else {
+            out[index] = value.interpolate(value, 0.0);
+        }
+    }
+
+    /** Stores a value interpolated between two entries as a batch result. */
+    @SuppressWarnings("unchecked")
+    private void store(V[] out, int index, K bottomBound, V bottomElem, K topBound, V topElem, K key) {
+        double x = bottomBound.inverseInterpolate(topBound, key);
+        if (out[index] instanceof MutableInterpolable && bottomElem instanceof MutableInterpolable) {
+            ((MutableInterpolable<V>) bottomElem).interpolateInto(topElem, x, out[index]);
+        } else {
+            out[index] = bottomElem.interpolate(topElem, x);
+        }
+    }
+
+    private static void checkBatch(Object[] keys, Object[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output must hold " + keys.length + " values");
+        }
+    }
+
+    /**
+     * Read-only sorted view of key and value arrays, used to hand presorted data
+     * to {@link TreeMap#putAll(Map)} so it can build the tree in linear time.
+     */
+    private static final class SortedArrayMap<K extends Comparable<K>, V> extends AbstractMap<K, V>
+            implements SortedMap<K, V> {
+        private final K[] keys_;
+        private final V[] values_;
+        private final int start_;
+        private final int end_;
+
+        /** View of the entries from index start (inclusive) to end (exclusive). */
+        SortedArrayMap(K[] keys, V[] values, int start, int end) {
+            keys_ = keys;
+            values_ = values;
+            start_ = start;
+            end_ = end;
+        }
+
+        @Override
+        public int size() {
+            return end_ - start_;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return SortedArrayMap.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<Map.Entry<K, V>>() {
+                        private int index_ = start_;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index_ < end_;
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(keys_[index_],
+                                    values_[index_]);
+                            index_++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return null;
+        }
+
+        @Override
+        public K firstKey() {
+            if (size() == 0) {
+                throw new NoSuchElementException();
+            }
+            return keys_[start_];
+        }
+
+        @Override
+        public K lastKey() {
+            if (size() == 0) {
+                throw new NoSuchElementException();
+            }
+            return keys_[end_ - 1];
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            if (fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("fromKey must not be after toKey");
+            }
+            int from = lowerBound(fromKey);
+            return new SortedArrayMap<>(keys_, values_, from, Math.max(from, lowerBound(toKey)));
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return new SortedArrayMap<>(keys_, values_, start_, lowerBound(toKey));
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return new SortedArrayMap<>(keys_, values_, lowerBound(fromKey), end_);
+        }
+
+        /** Binary search for the index of the first key at or after key. */
+        private int lowerBound(K key) {
+            int low = start_;
+            int high = end_;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys_[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * The curve used by {@link InterpolatingDoubleTable} to estimate values between
+ * the points in the table.
+ */
+public enum InterpolationMode {
+    /** Straight lines between neighboring points. */
+    kLinear,
+
+    /**
+     * Cubic Hermite curves with the slope at each point set to the average of
+     * the slopes on either side. Smooth through every point, but may overshoot
+     * between points where the data changes direction.
+     */
+    kCubicHermite,
+
+    /**
+     * Cubic Hermite curves with slopes limited by the Fritsch–Carlson method so
+     * the curve never overshoots. Wherever the data is increasing or decreasing,
+     * so is the curve.
+     */
+    kMonotoneCubic,
+
+    /**
+     * Natural cubic spline, which has continuous first and second derivatives
+     * and zero curvature at the first and last points.
+     */
+    kNaturalSpline
+}
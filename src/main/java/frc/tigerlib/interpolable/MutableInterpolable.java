@@ -0,0 +1,36 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * MutableInterpolable is an optional companion to {@link Interpolable} for
+ * values that can be overwritten. Instead of returning a new object, it writes
+ * the interpolated value into a destination supplied by the caller, so lookups
+ * in a loop do not allocate.
+ *
+ * <p>
+ * {@link #interpolate(Object, double)} must still return a new value, even
+ * when x is 0, since batch lookups use it to copy values out of a map.
+ *
+ * @param <T> The Type of MutableInterpolable
+ * @see MutableInterpolatingTreeMap
+ * @see MutableTimeInterpolatingBuffer
+ */
+public interface MutableInterpolable<T> extends Interpolable<T> {
+    /**
+     * Interpolates between this value and an other value according to a given
+     * parameter, storing the result in {@code dest}. If x is 0, dest should be
+     * set to this value. If x is 1, dest should be set to the other value. The
+     * destination may be this value or the other value.
+     *
+     * @param other The value of the upper bound
+     * @param x     The requested value. Should be between 0 and 1.
+     * @param dest  The value to store the result in
+     */
+    void interpolateInto(T other, double x, T dest);
+
+    /**
+     * Copies the state of another value into this one.
+     *
+     * @param other The value to copy
+     */
+    void set(T other);
+}
@@ -0,0 +1,59 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A double that can be interpolated using the InterpolatingTreeMap, and
+ * overwritten in place so lookups don't allocate.
+ *
+ * @see InterpolatingDouble
+ * @see MutableInterpolatingTreeMap
+ */
+public class MutableInterpolatingDouble implements MutableInterpolable<MutableInterpolatingDouble>,
+        InverseInterpolable<MutableInterpolatingDouble>, Comparable<MutableInterpolatingDouble> {
+    public double value = 0.0;
+
+    public MutableInterpolatingDouble(double val) {
+        value = val;
+    }
+
+    @Override
+    public MutableInterpolatingDouble interpolate(MutableInterpolatingDouble other, double x) {
+        double dydx = other.value - value;
+        double searchY = dydx * x + value;
+        return new MutableInterpolatingDouble(searchY);
+    }
+
+    @Override
+    public void interpolateInto(MutableInterpolatingDouble other, double x, MutableInterpolatingDouble dest) {
+        double dydx = other.value - value;
+        dest.value = dydx * x + value;
+    }
+
+    @Override
+    public void set(MutableInterpolatingDouble other) {
+        value = other.value;
+    }
+
+    @Override
+    public double inverseInterpolate(MutableInterpolatingDouble upper, MutableInterpolatingDouble query) {
+        double upper_to_lower = upper.value - value;
+        if (upper_to_lower <= 0) {
+            return 0;
+        }
+        double query_to_lower = query.value - value;
+        if (query_to_lower <= 0) {
+            return 0;
+        }
+        return query_to_lower / upper_to_lower;
+    }
+
+    @Override
+    public int compareTo(MutableInterpolatingDouble other) {
+        if (other.value < value) {
+            return 1;
+        } else if (other.value > value) {
+            return -1;
+        } else {
+            return 0;
+        }
+    }
+}
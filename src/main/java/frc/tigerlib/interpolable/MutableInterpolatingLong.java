@@ -0,0 +1,59 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A long that can be interpolated using the InterpolatingTreeMap, and
+ * overwritten in place so lookups don't allocate.
+ *
+ * @see InterpolatingLong
+ * @see MutableInterpolatingTreeMap
+ */
+public class MutableInterpolatingLong implements MutableInterpolable<MutableInterpolatingLong>,
+        InverseInterpolable<MutableInterpolatingLong>, Comparable<MutableInterpolatingLong> {
+    public long value = 0L;
+
+    public MutableInterpolatingLong(long val) {
+        value = val;
+    }
+
+    @Override
+    public MutableInterpolatingLong interpolate(MutableInterpolatingLong other, double x) {
+        long dydx = other.value - value;
+        double searchY = dydx * x + value;
+        return new MutableInterpolatingLong((long) searchY);
+    }
+
+    @Override
+    public void interpolateInto(MutableInterpolatingLong other, double x, MutableInterpolatingLong dest) {
+        long dydx = other.value - value;
+        dest.value = (long) (dydx * x + value);
+    }
+
+    @Override
+    public void set(MutableInterpolatingLong other) {
+        value = other.value;
+    }
+
+    @Override
+    public double inverseInterpolate(MutableInterpolatingLong upper, MutableInterpolatingLong query) {
+        long upper_to_lower = upper.value - value;
+        if (upper_to_lower <= 0) {
+            return 0;
+        }
+        long query_to_lower = query.value - value;
+        if (query_to_lower <= 0) {
+            return 0;
+        }
+        return query_to_lower / (double) upper_to_lower;
+    }
+
+    @Override
+    public int compareTo(MutableInterpolatingLong other) {
+        if (other.value < value) {
+            return 1;
+        } else if (other.value > value) {
+            return -1;
+        } else {
+            return 0;
+        }
+    }
+}
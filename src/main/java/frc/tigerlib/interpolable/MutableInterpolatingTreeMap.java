@@ -0,0 +1,60 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * An {@link InterpolatingTreeMap} of {@link MutableInterpolable} values, which
+ * can also store lookups in a value supplied by the caller instead of creating
+ * a new one, so lookups in a loop do not allocate.
+ *
+ * @param <K> The type of the key (must implement InverseInterpolable)
+ * @param <V> The type of the value (must implement MutableInterpolable)
+ */
+public class MutableInterpolatingTreeMap<K extends InverseInterpolable<K> & Comparable<K>,
+        V extends MutableInterpolable<V>> extends InterpolatingTreeMap<K, V> {
+    private static final long serialVersionUID = -2468350212757102933L;
+
+    public MutableInterpolatingTreeMap(int maximumSize) {
+        super(maximumSize);
+    }
+
+    public MutableInterpolatingTreeMap() {
+        this(0);
+    }
+
+    /**
+     * Looks up a value like {@link #getInterpolated(InverseInterpolable)}, but
+     * stores the result in a value supplied by the caller instead of creating a
+     * new one.
+     *
+     * @param key  Lookup for a value (does not have to exist)
+     * @param dest The value to store the result in
+     * @return dest, or null if the map is empty
+     */
+    public V getInterpolated(K key, V dest) {
+        V gotval = get(key);
+        if (gotval == null) {
+            // get surrounding keys for interpolation
+            K topBound = ceilingKey(key);
+            K bottomBound = floorKey(key);
+
+            // if attempting interpolation at ends of tree, return the nearest data point
+            if (topBound == null && bottomBound == null) {
+                return null;
+            } else if (topBound == null) {
+                dest.set(get(bottomBound));
+                return dest;
+            } else if (bottomBound == null) {
+                dest.set(get(topBound));
+                return dest;
+            }
+
+            // get surrounding values for interpolation
+            V topElem = get(topBound);
+            V bottomElem = get(bottomBound);
+            bottomElem.interpolateInto(topElem, bottomBound.inverseInterpolate(topBound, key), dest);
+        } else {
+            dest.set(gotval);
+        }
+
+        return dest;
+    }
+}
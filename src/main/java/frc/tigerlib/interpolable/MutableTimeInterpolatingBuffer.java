@@ -0,0 +1,48 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A {@link TimeInterpolatingBuffer} of {@link MutableInterpolable} values,
+ * which can also store lookups in a value supplied by the caller instead of
+ * creating a new one, so lookups in a loop do not allocate.
+ *
+ * @param <V> The type of the value (must implement MutableInterpolable)
+ */
+public class MutableTimeInterpolatingBuffer<V extends MutableInterpolable<V>> extends TimeInterpolatingBuffer<V> {
+    /**
+     * @param capacity Maximum number of samples kept
+     */
+    public MutableTimeInterpolatingBuffer(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Looks up a value like {@link #getInterpolated(double)}, but stores the
+     * result in a value supplied by the caller instead of creating a new one.
+     *
+     * @param timestamp Time to look up (does not have to match a sample)
+     * @param dest      The value to store the result in
+     * @return dest, or null if the buffer is empty
+     */
+    public V getInterpolated(double timestamp, V dest) {
+        if (size_ == 0) {
+            return null;
+        }
+
+        int lower = floorIndex(timestamp);
+        if (lower < 0) {
+            dest.set(value(head_));
+            return dest;
+        }
+
+        int lowerSlot = slot(lower);
+        if (lower == size_ - 1 || times_[lowerSlot] == timestamp) {
+            dest.set(value(lowerSlot));
+            return dest;
+        }
+
+        int upperSlot = slot(lower + 1);
+        double x = (timestamp - times_[lowerSlot]) / (times_[upperSlot] - times_[lowerSlot]);
+        value(lowerSlot).interpolateInto(value(upperSlot), x, dest);
+        return dest;
+    }
+}
@@ -0,0 +1,99 @@
+package frc.tigerlib.interpolable;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-capacity history of timestamped {@link Interpolable} samples, such as
+ * robot poses kept for latency compensation.
+ *
+ * <p>
+ * Samples must be added in increasing time order. Adding a sample is O(1) and
+ * evicts the oldest sample once the buffer is full. Looking up a value is a
+ * binary search. The buffer stores references to the values it is given and
+ * does not allocate after it is created.
+ *
+ * @param <V> The type of the value (must implement Interpolable)
+ * @see TimeInterpolatingDoubleBuffer
+ */
+public class TimeInterpolatingBuffer<V extends Interpolable<V>> extends TimeRingBuffer {
+    private final Object[] values_;
+
+    /**
+     * @param capacity Maximum number of samples kept
+     */
+    public TimeInterpolatingBuffer(int capacity) {
+        super(capacity);
+        values_ = new Object[capacity];
+    }
+
+    /**
+     * Adds a sample. If the timestamp matches the newest sample, its value is
+     * replaced. Samples older than the newest sample are ignored.
+     *
+     * @param timestamp Time of the sample
+     * @param value     Value of the sample
+     * @return true if the sample was added
+     */
+    public boolean add(double timestamp, V value) {
+        int slot = append(timestamp);
+        if (slot < 0) {
+            return false;
+        }
+
+        values_[slot] = value;
+        return true;
+    }
+
+    /**
+     * @param index Age order of the sample, where 0 is the oldest
+     * @return The value of the sample
+     */
+    public V valueAt(int index) {
+        checkIndex(index);
+        return value(slot(index));
+    }
+
+    /**
+     * @return Value of the newest sample, or null if the buffer is empty
+     */
+    public V getLatest() {
+        return size_ > 0 ? value(slot(size_ - 1)) : null;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(values_, null);
+    }
+
+    /**
+     * @param timestamp Time to look up (does not have to match a sample)
+     * @return The value at the timestamp, interpolated from the surrounding
+     *         samples. Times outside of the buffer return the nearest sample.
+     *         null if the buffer is empty.
+     */
+    public V getInterpolated(double timestamp) {
+        if (size_ == 0) {
+            return null;
+        }
+
+        int lower = floorIndex(timestamp);
+        if (lower < 0) {
+            return value(head_);
+        }
+
+        int lowerSlot = slot(lower);
+        if (lower == size_ - 1 || times_[lowerSlot] == timestamp) {
+            return value(lowerSlot);
+        }
+
+        int upperSlot = slot(lower + 1);
+        double x = (timestamp - times_[lowerSlot]) / (times_[upperSlot] - times_[lowerSlot]);
+        return value(lowerSlot).interpolate(value(upperSlot), x);
+    }
+
+    @SuppressWarnings("unchecked")
+    V value(int slot) {
+        return (V) values_[slot];
+    }
+}
@@ -0,0 +1,83 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * A fixed-capacity history of timestamped {@code double} samples, such as a
+ * gyro angle or a sensor reading kept for latency compensation.
+ *
+ * <p>
+ * Samples must be added in increasing time order. Adding a sample is O(1) and
+ * evicts the oldest sample once the buffer is full. Looking up a value is a
+ * binary search. All storage is allocated by the constructor, so the buffer
+ * does not allocate after it is created.
+ *
+ * @see TimeInterpolatingBuffer
+ */
+public class TimeInterpolatingDoubleBuffer extends TimeRingBuffer {
+    private final double[] values_;
+
+    /**
+     * @param capacity Maximum number of samples kept
+     */
+    public TimeInterpolatingDoubleBuffer(int capacity) {
+        super(capacity);
+        values_ = new double[capacity];
+    }
+
+    /**
+     * Adds a sample. If the timestamp matches the newest sample, its value is
+     * replaced. Samples older than the newest sample are ignored.
+     *
+     * @param timestamp Time of the sample
+     * @param value     Value of the sample
+     * @return true if the sample was added
+     */
+    public boolean add(double timestamp, double value) {
+        int slot = append(timestamp);
+        if (slot < 0) {
+            return false;
+        }
+
+        values_[slot] = value;
+        return true;
+    }
+
+    /**
+     * @param index Age order of the sample, where 0 is the oldest
+     * @return The value of the sample
+     */
+    public double valueAt(int index) {
+        checkIndex(index);
+        return values_[slot(index)];
+    }
+
+    /**
+     * @return Value of the newest sample, or NaN if the buffer is empty
+     */
+    public double getLatest() {
+        return size_ > 0 ? values_[slot(size_ - 1)] : Double.NaN;
+    }
+
+    /**
+     * @param timestamp Time to look up (does not have to match a sample)
+     * @return The value at the timestamp, interpolated from the surrounding
+     *         samples. Times outside of the buffer return the nearest sample.
+     *         NaN if the buffer is empty.
+     */
+    public double getInterpolated(double timestamp) {
+        if (size_ == 0) {
+            return Double.NaN;
+        }
+
+        int lower = floorIndex(timestamp);
+        if (lower < 0) {
+            return values_[head_];
+        } else if (lower == size_ - 1) {
+            return values_[slot(lower)];
+        }
+
+        int lowerSlot = slot(lower);
+        int upperSlot = slot(lower + 1);
+        double x = (timestamp - times_[lowerSlot]) / (times_[upperSlot] - times_[lowerSlot]);
+        return values_[lowerSlot] + (values_[upperSlot] - values_[lowerSlot]) * x;
+    }
+}
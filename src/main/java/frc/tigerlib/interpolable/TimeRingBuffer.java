@@ -0,0 +1,149 @@
+package frc.tigerlib.interpolable;
+
+/**
+ * Fixed-capacity circular buffer of increasing timestamps shared by the
+ * time-series interpolators. Subclasses store their values in arrays indexed by
+ * the slots this class hands out.
+ *
+ * @see TimeInterpolatingDoubleBuffer
+ * @see TimeInterpolatingBuffer
+ */
+abstract class TimeRingBuffer {
+    final double[] times_;
+    final int capacity_;
+    int head_;
+    int size_;
+
+    TimeRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+
+        capacity_ = capacity;
+        times_ = new double[capacity];
+    }
+
+    /**
+     * Claims the slot for a new sample, evicting the oldest sample if the buffer
+     * is full.
+     *
+     * @param timestamp Time of the sample
+     * @return The slot to write the value into, or -1 if the timestamp is older
+     *         than the newest sample
+     */
+    final int append(double timestamp) {
+        if (size_ > 0) {
+            int newest = slot(size_ - 1);
+            if (timestamp == times_[newest]) {
+                return newest;
+            } else if (!(timestamp > times_[newest])) {
+                return -1;
+            }
+        } else if (Double.isNaN(timestamp)) {
+            return -1;
+        }
+
+        int slot;
+        if (size_ == capacity_) {
+            slot = head_;
+            head_ = head_ + 1 == capacity_ ? 0 : head_ + 1;
+        } else {
+            slot = slot(size_);
+            size_++;
+        }
+
+        times_[slot] = timestamp;
+        return slot;
+    }
+
+    /**
+     * @param index Age order of a sample, where 0 is the oldest
+     * @return The slot holding the sample
+     */
+    final int slot(int index) {
+        int slot = head_ + index;
+        return slot >= capacity_ ? slot - capacity_ : slot;
+    }
+
+    /**
+     * Finds the newest sample at or before a timestamp.
+     *
+     * @param timestamp Time to search for
+     * @return The age order of the sample, or -1 if every sample is newer
+     */
+    final int floorIndex(double timestamp) {
+        int low = 0;
+        int high = size_ - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midTime = times_[slot(mid)];
+
+            if (midTime < timestamp) {
+                low = mid + 1;
+            } else if (midTime > timestamp) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * @return The number of samples in the buffer
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * @return true if the buffer has no samples
+     */
+    public boolean isEmpty() {
+        return size_ == 0;
+    }
+
+    /**
+     * @return The maximum number of samples the buffer holds
+     */
+    public int capacity() {
+        return capacity_;
+    }
+
+    /** Removes every sample from the buffer. */
+    public void clear() {
+        head_ = 0;
+        size_ = 0;
+    }
+
+    /**
+     * @return Timestamp of the oldest sample, or NaN if the buffer is empty
+     */
+    public double getOldestTimestamp() {
+        return size_ > 0 ? times_[head_] : Double.NaN;
+    }
+
+    /**
+     * @return Timestamp of the newest sample, or NaN if the buffer is empty
+     */
+    public double getLatestTimestamp() {
+        return size_ > 0 ? times_[slot(size_ - 1)] : Double.NaN;
+    }
+
+    /**
+     * @param index Age order of the sample, where 0 is the oldest
+     * @return The timestamp of the sample
+     */
+    public double timestampAt(int index) {
+        checkIndex(index);
+        return times_[slot(index)];
+    }
+
+    final void checkIndex(int index) {
+        if (index < 0 || index >= size_) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size_);
+        }
+    }
+}
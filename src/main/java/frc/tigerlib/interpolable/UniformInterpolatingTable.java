@@ -0,0 +1,188 @@
+package frc.tigerlib.interpolable;
+
+import java.util.Map;
+
+/**
+ * An immutable lookup table sampled at evenly spaced keys. Because the spacing
+ * is fixed, a lookup finds its surrounding points with index arithmetic instead
+ * of a search, so it takes the same short, constant time no matter how large
+ * the table is.
+ *
+ * <p>
+ * Tables are created by "baking" an {@link InterpolatingDoubleTable} or
+ * {@link InterpolatingTreeMap} that will no longer change, such as a
+ * calibration table loaded at startup. Baking resamples the source over its
+ * full key range and records the largest difference from the source, so the
+ * resolution can be chosen to trade memory for accuracy.
+ *
+ * @see InterpolatingDoubleTable#bake(int)
+ */
+public final class UniformInterpolatingTable {
+    private final double minKey_;
+    private final double maxKey_;
+    private final double step_;
+    private final double inverseStep_;
+    private final double[] values_;
+    private final double maxError_;
+
+    private UniformInterpolatingTable(double minKey, double maxKey, double[] values, double maxError) {
+        minKey_ = minKey;
+        maxKey_ = maxKey;
+        values_ = values;
+        maxError_ = maxError;
+
+        if (values.length > 1) {
+            step_ = (maxKey - minKey) / (values.length - 1);
+            inverseStep_ = 1.0 / step_;
+        } else {
+            step_ = 0.0;
+            inverseStep_ = 0.0;
+        }
+    }
+
+    /**
+     * Resample a table into evenly spaced points between its first and last
+     * keys. The source's {@link InterpolationMode} is used to find the values
+     * of the new points.
+     *
+     * @param source     Table to resample
+     * @param resolution Number of points in the new table, at least 2
+     * @return The baked table
+     */
+    public static UniformInterpolatingTable bake(InterpolatingDoubleTable source, int resolution) {
+        if (source.isEmpty()) {
+            throw new IllegalArgumentException("Cannot bake an empty table");
+        }
+        if (resolution < 2) {
+            throw new IllegalArgumentException("Resolution must be at least 2");
+        }
+
+        double minKey = source.firstKey();
+        double maxKey = source.lastKey();
+
+        if (source.size() == 1 || minKey == maxKey) {
+            return new UniformInterpolatingTable(minKey, maxKey, new double[] { source.valueAt(0) }, 0.0);
+        }
+
+        double[] values = new double[resolution];
+        double step = (maxKey - minKey) / (resolution - 1);
+        for (int i = 0; i < resolution - 1; i++) {
+            values[i] = source.getInterpolated(minKey + i * step);
+        }
+        values[resolution - 1] = source.getInterpolated(maxKey);
+
+        UniformInterpolatingTable baked = new UniformInterpolatingTable(minKey, maxKey, values, 0.0);
+
+        // The largest differences are at the source's own points, where a linear
+        // source bends, and near the middle of each new segment, where a curved
+        // source is farthest from a straight line.
+        double maxError = 0.0;
+        for (int i = 0; i < source.size(); i++) {
+            maxError = Math.max(maxError, Math.abs(baked.getInterpolated(source.keyAt(i)) - source.valueAt(i)));
+        }
+        for (int i = 0; i < resolution - 1; i++) {
+            double key = minKey + (i + 0.5) * step;
+            maxError = Math.max(maxError, Math.abs(baked.getInterpolated(key) - source.getInterpolated(key)));
+        }
+
+        return new UniformInterpolatingTable(minKey, maxKey, values, maxError);
+    }
+
+    /**
+     * Resample a map into evenly spaced points between its first and last keys.
+     *
+     * @param source     Map to resample
+     * @param resolution Number of points in the new table, at least 2
+     * @return The baked table
+     */
+    public static UniformInterpolatingTable bake(InterpolatingTreeMap<InterpolatingDouble, InterpolatingDouble> source,
+            int resolution) {
+        InterpolatingDoubleTable table = new InterpolatingDoubleTable();
+        for (Map.Entry<InterpolatingDouble, InterpolatingDouble> entry : source.entrySet()) {
+            table.put(entry.getKey().value, entry.getValue().value);
+        }
+
+        return bake(table, resolution);
+    }
+
+    /**
+     * Resample a table with the smallest power-of-two-plus-one resolution whose
+     * error is within a tolerance.
+     *
+     * @param source        Table to resample
+     * @param tolerance     Largest acceptable difference from the source
+     * @param maxResolution Largest number of points to try
+     * @return The first baked table within the tolerance, or the table at the
+     *         largest resolution tried if none are
+     */
+    public static UniformInterpolatingTable bakeWithin(InterpolatingDoubleTable source, double tolerance,
+            int maxResolution) {
+        int resolution = 2;
+        UniformInterpolatingTable baked = bake(source, resolution);
+
+        while (baked.getMaxError() > tolerance && (resolution - 1) * 2 + 1 <= maxResolution) {
+            resolution = (resolution - 1) * 2 + 1;
+            baked = bake(source, resolution);
+        }
+
+        return baked;
+    }
+
+    /**
+     * @param key Lookup for a value
+     * @return The value at the key, interpolated from the surrounding points.
+     *         Keys past either end of the table return the value of the
+     *         nearest point.
+     */
+    public double getInterpolated(double key) {
+        double position = (key - minKey_) * inverseStep_;
+        if (!(position > 0.0)) {
+            // Also catches NaN keys and single-point tables
+            return values_[0];
+        }
+
+        int lower = (int) position;
+        if (lower >= values_.length - 1) {
+            return values_[values_.length - 1];
+        }
+
+        double x = position - lower;
+        return values_[lower] + (values_[lower + 1] - values_[lower]) * x;
+    }
+
+    /**
+     * @return The largest difference between this table and its source, measured
+     *         at the source's points and the middle of each segment
+     */
+    public double getMaxError() {
+        return maxError_;
+    }
+
+    /**
+     * @return The number of points in the table
+     */
+    public int size() {
+        return values_.length;
+    }
+
+    /**
+     * @return The lowest key in the table
+     */
+    public double firstKey() {
+        return minKey_;
+    }
+
+    /**
+     * @return The highest key in the table
+     */
+    public double lastKey() {
+        return maxKey_;
+    }
+
+    /**
+     * @return The distance between neighboring keys
+     */
+    public double getStep() {
+        return step_;
+    }
+}
@@ -0,0 +1,131 @@
+package frc.tigerlib.sim;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs simulation scenarios in parallel, one JVM each.
+ *
+ * <p>
+ * The {@link SimulationHarness} can only run one scenario per JVM, because the
+ * HAL and scheduler are process-wide. This runner starts a JVM per scenario
+ * with the current classpath and native library path, calling the scenario
+ * class's {@code main} with the scenario's arguments, and keeps up to one
+ * running per core. Each scenario reports its result by printing to standard
+ * output, which is returned in scenario order. Standard error is passed
+ * through.
+ *
+ * <pre>
+ * <code>
+ * public class AutoScenario {
+ *   public static void main(String[] args) {
+ *     SimulationHarness.start(true);
+ *     // Build the robot with simulated hardware, schedule args[0]
+ *     SimulationHarness.run(15.0);
+ *     System.out.println(sim.getPose().getX());
+ *   }
+ * }
+ *
+ * List&lt;String&gt; results = ForkedScenarioRunner.run(AutoScenario.class, scenarios);
+ * </code>
+ * </pre>
+ */
+public final class ForkedScenarioRunner {
+    private ForkedScenarioRunner() {}
+
+    /**
+     * Run scenarios with one JVM per available core.
+     *
+     * @param mainClass Class whose {@code main} runs a scenario
+     * @param scenarios Arguments for each scenario
+     * @return Standard output of each scenario, in order
+     * @throws IOException          if a JVM cannot be started or a scenario
+     *                              exits with an error
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static List<String> run(Class<?> mainClass, List<String[]> scenarios)
+            throws IOException, InterruptedException {
+        return run(mainClass, scenarios, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Run scenarios.
+     *
+     * @param mainClass   Class whose {@code main} runs a scenario
+     * @param scenarios   Arguments for each scenario
+     * @param parallelism Most JVMs to run at once
+     * @return Standard output of each scenario, in order
+     * @throws IOException          if a JVM cannot be started or a scenario
+     *                              exits with an error
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static List<String> run(Class<?> mainClass, List<String[]> scenarios, int parallelism)
+            throws IOException, InterruptedException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ForkedScenarioRunner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<String>> futures = new ArrayList<>(scenarios.size());
+            for (String[] args : scenarios) {
+                futures.add(executor.submit(() -> runScenario(mainClass, args)));
+            }
+
+            List<String> results = new ArrayList<>(scenarios.size());
+            for (Future<String> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String runScenario(Class<?> mainClass, String[] args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        String libraryPath = System.getProperty("java.library.path");
+        if (libraryPath != null) {
+            command.add("-Djava.library.path=" + libraryPath);
+        }
+        command.add(mainClass.getName());
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try (InputStream output = process.getInputStream()) {
+            String result = new String(output.readAllBytes(), StandardCharsets.UTF_8);
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException(
+                        mainClass.getName() + " " + String.join(" ", args) + " exited with code " + exitCode);
+            }
+            return result;
+        } finally {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.tigerlib.subsystem.drive.DriveSubsystemBase;
+import frc.tigerlib.telemetry.LoopTiming;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reruns a drive subsystem's odometry on recorded sensors, as fast as the CPU
+ * allows, and writes the recalculated pose track next to the recorded one.
+ *
+ * <p>
+ * Each record is loaded into a {@link SensorReplay}, the simulated clock is
+ * stepped to the record's timestamp, and the subsystem's
+ * {@link DriveSubsystemBase#periodic()} runs, the same path as on the robot.
+ * Position resets and vision measurements are applied at their own records
+ * instead, through {@link DriveSubsystemBase#setRobotPosition(Pose2d)} and
+ * {@link DriveSubsystemBase#addVisionMeasurement(Pose2d, double, double, double, double)},
+ * with the measurement as old as it was on the robot. The pose track is a CSV
+ * of the timestamp, the recorded x, y and heading, then the replayed x, y and
+ * heading. Replaying unchanged code should reproduce the recorded track, so
+ * differences after a change show what the change did. The subsystem must not
+ * run its odometry thread.
+ *
+ * <p>
+ * {@link #replayBatch(List, Class, Path, int)} splits many logs between
+ * forked JVMs, one per core, since each JVM has one simulated clock.
+ */
+public final class ReplayRunner {
+    /** Creates a drive subsystem wired to a replay. */
+    @FunctionalInterface
+    public interface DriveFactory {
+        /**
+         * @param replay Sensors to read
+         * @return New drive subsystem
+         */
+        DriveSubsystemBase create(SensorReplay replay);
+    }
+
+    private ReplayRunner() {}
+
+    /**
+     * Replay one log in this JVM.
+     *
+     * @param log       Log written by a drive subsystem
+     * @param factory   Creates the subsystem to replay into
+     * @param poseTrack CSV file to create or replace
+     * @return The largest distance between the recorded and replayed
+     *         positions, in meters
+     * @throws IOException if a file cannot be read or written
+     */
+    public static double replay(Path log, DriveFactory factory, Path poseTrack) throws IOException {
+        SimulationHarness.initialize();
+        LoopTiming.reset();
+
+        double maxError = 0.0;
+        try (SensorReplay replay = new SensorReplay(log);
+                BufferedWriter out = Files.newBufferedWriter(poseTrack)) {
+            out.write("timestamp,recorded x (m),recorded y (m),recorded heading (rad),x (m),y (m),heading (rad)");
+            out.newLine();
+
+            if (!replay.next()) {
+                return maxError;
+            }
+
+            DriveSubsystemBase drive = factory.create(replay);
+            try {
+                // Queued until odometry is set up in the first cycle
+                drive.setRobotPosition(replay.getRecordedPose());
+
+                double previousTimestamp = replay.getTimestamp();
+                StringBuilder line = new StringBuilder();
+                do {
+                    double timestamp = replay.getTimestamp();
+                    // Event records can be committed slightly out of order
+                    if (timestamp > previousTimestamp) {
+                        SimHooks.stepTiming(timestamp - previousTimestamp);
+                        previousTimestamp = timestamp;
+                    }
+
+                    if (replay.isReset()) {
+                        drive.setRobotPosition(replay.getResetPose());
+                    } else if (replay.isVisionMeasurement()) {
+                        // As old as it was when it was added on the robot
+                        double age = previousTimestamp - replay.getVisionTimestamp();
+                        drive.addVisionMeasurement(
+                                replay.getVisionPose(),
+                                Timer.getFPGATimestamp() - age,
+                                replay.getVisionStdDev(0),
+                                replay.getVisionStdDev(1),
+                                replay.getVisionStdDev(2));
+                    } else {
+                        drive.periodic();
+                    }
+
+                    Pose2d recorded = replay.getRecordedPose();
+                    Pose2d replayed = drive.getRobotPosition();
+                    maxError = Math.max(maxError, Math.hypot(
+                            replayed.getX() - recorded.getX(), replayed.getY() - recorded.getY()));
+
+                    line.setLength(0);
+                    line.append(timestamp)
+                            .append(',').append(recorded.getX())
+                            .append(',').append(recorded.getY())
+                            .append(',').append(recorded.getRotation().getRadians())
+                            .append(',').append(replayed.getX())
+                            .append(',').append(replayed.getY())
+                            .append(',').append(replayed.getRotation().getRadians());
+                    out.write(line.toString());
+                    out.newLine();
+                } while (replay.next());
+            } finally {
+                drive.close();
+            }
+        }
+        return maxError;
+    }
+
+    /**
+     * Replay many logs across forked JVMs. Each pose track is written to the
+     * output directory, named after its log's path below the directory all the
+     * logs share, with underscores between directories and a {@code .csv}
+     * extension.
+     *
+     * @param logs        Logs written by a drive subsystem
+     * @param factory     Factory class, with a public no-argument constructor
+     * @param outputDir   Directory for the pose tracks
+     * @param parallelism Most JVMs to run at once
+     * @return A line per log of its path and largest position error in
+     *         meters, separated by a comma, in the order of the logs
+     * @throws IOException          if a file cannot be read or written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static List<String> replayBatch(
+            List<Path> logs, Class<? extends DriveFactory> factory, Path outputDir, int parallelism)
+            throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+
+        List<String> tracks = trackNames(logs);
+        int jvms = Math.max(1, Math.min(parallelism, logs.size()));
+        List<String[]> batches = new ArrayList<>(jvms);
+        for (int jvm = 0; jvm < jvms; jvm++) {
+            List<String> args = new ArrayList<>();
+            args.add(factory.getName());
+            args.add(outputDir.toString());
+            for (int i = jvm; i < logs.size(); i += jvms) {
+                args.add(logs.get(i).toString());
+                args.add(tracks.get(i));
+            }
+            batches.add(args.toArray(new String[0]));
+        }
+
+        // Match results to logs by path, since anything else the factory or
+        // drive prints also ends up in the output
+        Set<String> paths = new HashSet<>();
+        for (Path log : logs) {
+            paths.add(log.toString());
+        }
+        Map<String, String> resultsByLog = new HashMap<>();
+        for (String output : ForkedScenarioRunner.run(ReplayRunner.class, batches, jvms)) {
+            for (String line : output.split("\\R")) {
+                int comma = line.lastIndexOf(',');
+                if (comma > 0 && paths.contains(line.substring(0, comma)) && isNumber(line.substring(comma + 1))) {
+                    resultsByLog.put(line.substring(0, comma), line);
+                }
+            }
+        }
+
+        List<String> results = new ArrayList<>(logs.size());
+        for (Path log : logs) {
+            String result = resultsByLog.get(log.toString());
+            if (result == null) {
+                throw new IOException("No result for " + log);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Replay logs in this JVM, printing a line per log of its path and largest
+     * position error. Used by {@link #replayBatch(List, Class, Path, int)}.
+     *
+     * @param args Factory class name, output directory, then each log followed
+     *             by the file name of its pose track
+     * @throws Exception if the factory cannot be created or a file cannot be
+     *                   read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.err.println("Usage: ReplayRunner <factory class> <output dir> [<log> <track>]...");
+            System.exit(2);
+        }
+
+        DriveFactory factory = Class.forName(args[0]).asSubclass(DriveFactory.class).getConstructor().newInstance();
+        Path outputDir = Paths.get(args[1]);
+        for (int i = 2; i < args.length; i += 2) {
+            Path log = Paths.get(args[i]);
+            double maxError = replay(log, factory, outputDir.resolve(args[i + 1]));
+            System.out.println(log + "," + maxError);
+        }
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Name each log's pose track after its path below the directory all the
+     * logs share, so logs with the same file name in different directories
+     * get different tracks, e.g. m1/drive.tlog and m2/drive.tlog become
+     * m1_drive.csv and m2_drive.csv.
+     */
+    static List<String> trackNames(List<Path> logs) {
+        List<Path> paths = new ArrayList<>(logs.size());
+        Path root = null;
+        for (Path log : logs) {
+            Path path = log.toAbsolutePath().normalize();
+            paths.add(path);
+            if (paths.size() == 1) {
+                root = path.getParent();
+            }
+            while (root != null && !path.startsWith(root)) {
+                root = root.getParent();
+            }
+        }
+
+        List<String> names = new ArrayList<>(logs.size());
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            Path relative = root != null ? root.relativize(path) : path.subpath(0, path.getNameCount());
+            StringBuilder name = new StringBuilder();
+            for (Path element : relative) {
+                if (name.length() > 0) {
+                    name.append('_');
+                }
+                name.append(element);
+            }
+            int extension = name.lastIndexOf(".");
+            if (extension > name.lastIndexOf("_") + 1) {
+                name.setLength(extension);
+            }
+            name.append(".csv");
+
+            // The same log listed twice
+            String track = name.toString();
+            if (!used.add(track)) {
+                track = i + "_" + track;
+                used.add(track);
+            }
+            names.add(track);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,229 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import frc.tigerlib.telemetry.BinaryLogReader;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Plays back the sensors recorded by
+ * {@link frc.tigerlib.subsystem.drive.DriveSubsystemBase#startLogging(Path)},
+ * one record at a time, as a gyro and wheel encoders.
+ *
+ * <p>
+ * Wire it into a drive subsystem like a {@link SimulatedDifferentialDrive}:
+ * pass {@link #getGyro()} and motors from {@link #createMotor()}, and return
+ * the wheel readings from the subsystem's encoder methods. Encoders read the
+ * recorded values, offset by {@link #resetEncoders()}, so odometry sees the
+ * same changes it saw on the robot. {@link ReplayRunner} steps through a log
+ * and runs the subsystem on it.
+ *
+ * <p>
+ * Position resets and vision measurements have records of their own, marked
+ * by {@link #isReset()} and {@link #isVisionMeasurement()}. A reset record
+ * holds the sensors read just after the reset on the robot, so resetting the
+ * subsystem there moves the encoder offsets at the same record the robot's
+ * encoders were zeroed.
+ */
+public final class SensorReplay implements AutoCloseable {
+    private final BinaryLogReader reader;
+    private final double[] values;
+    private final SimGyro gyro = new SimGyro();
+    private final int gyroAngle;
+    private final int gyroRate;
+    private final int x;
+    private final int y;
+    private final int heading;
+    private final int reset;
+    private final int vision;
+    private final int wheelCount;
+    private final int[] wheelFields;
+    private final double[] wheelOffsets;
+
+    /**
+     * Open a drive log.
+     *
+     * @param path Log written by a drive subsystem
+     * @throws IOException if the file cannot be read or isn't a drive log
+     */
+    public SensorReplay(Path path) throws IOException {
+        reader = new BinaryLogReader(path);
+        values = new double[reader.getFieldCount()];
+
+        gyroAngle = reader.indexOf("gyro angle (deg)");
+        gyroRate = reader.indexOf("gyro rate (deg/s)");
+        x = reader.indexOf("x (m)");
+        y = reader.indexOf("y (m)");
+        heading = reader.indexOf("heading (rad)");
+        if (gyroAngle < 0 || gyroRate < 0 || x < 0 || y < 0 || heading < 0) {
+            reader.close();
+            throw new IOException(path + ": not a drive log");
+        }
+        // Missing from older logs, which have no event records
+        reset = reader.indexOf("reset x (m)");
+        vision = reader.indexOf("vision x (m)");
+
+        int wheels = 0;
+        while (reader.indexOf("wheel " + wheels + " position (m)") >= 0) {
+            wheels++;
+        }
+        wheelCount = wheels;
+        wheelFields = new int[3 * wheelCount];
+        for (int wheel = 0; wheel < wheelCount; wheel++) {
+            wheelFields[3 * wheel] = reader.indexOf("wheel " + wheel + " position (m)");
+            wheelFields[3 * wheel + 1] = reader.indexOf("wheel " + wheel + " speed (m/s)");
+            wheelFields[3 * wheel + 2] = reader.indexOf("wheel " + wheel + " angle (rad)");
+        }
+        wheelOffsets = new double[wheelCount];
+    }
+
+    /**
+     * Load the next record into the gyro and encoders.
+     *
+     * @return false at the end of the log
+     * @throws IOException if the file cannot be read
+     */
+    public boolean next() throws IOException {
+        if (!reader.next(values)) {
+            return false;
+        }
+        gyro.setState(-Math.toRadians(values[gyroAngle]), -Math.toRadians(values[gyroRate]));
+        return true;
+    }
+
+    /**
+     * @return The time the current record was taken, in seconds
+     */
+    public double getTimestamp() {
+        return reader.getTimestamp();
+    }
+
+    /**
+     * @return The number of records dropped by the logger just before the
+     *         current one
+     */
+    public long getDroppedBefore() {
+        return reader.getDroppedBefore();
+    }
+
+    /**
+     * @return A gyro that reads the recorded heading
+     */
+    public Gyro getGyro() {
+        return gyro;
+    }
+
+    /**
+     * Create a motor controller that ignores its output, for subsystems that
+     * need motors to set up odometry.
+     *
+     * @return New motor controller
+     */
+    public MotorController createMotor() {
+        return new SimMotorController();
+    }
+
+    /**
+     * @return The number of wheels in the log
+     */
+    public int getWheelCount() {
+        return wheelCount;
+    }
+
+    /**
+     * @param wheel Index of the wheel, in the order of
+     *              {@link frc.tigerlib.subsystem.drive.DriveSensorSnapshot}
+     * @return Recorded distance since the last reset, in meters
+     */
+    public double getWheelPosition(int wheel) {
+        return values[wheelFields[3 * wheel]] - wheelOffsets[wheel];
+    }
+
+    /**
+     * @param wheel Index of the wheel
+     * @return Recorded speed, in meters per second
+     */
+    public double getWheelVelocity(int wheel) {
+        return values[wheelFields[3 * wheel + 1]];
+    }
+
+    /**
+     * @param wheel Index of the wheel
+     * @return Recorded steering angle, in radians
+     */
+    public double getWheelAngle(int wheel) {
+        return values[wheelFields[3 * wheel + 2]];
+    }
+
+    /** Zero the wheel positions at the current record. */
+    public void resetEncoders() {
+        for (int wheel = 0; wheel < wheelCount; wheel++) {
+            wheelOffsets[wheel] = values[wheelFields[3 * wheel]];
+        }
+    }
+
+    /**
+     * Get the robot position the robot calculated when the current record was
+     * taken, to compare the replayed position against.
+     *
+     * @return Recorded pose
+     */
+    public Pose2d getRecordedPose() {
+        return new Pose2d(values[x], values[y], new Rotation2d(values[heading]));
+    }
+
+    /**
+     * @return true if the current record is a position reset rather than an
+     *         odometry sample
+     */
+    public boolean isReset() {
+        return reset >= 0 && !Double.isNaN(values[reset]);
+    }
+
+    /**
+     * @return The position the robot was reset to at the current record
+     */
+    public Pose2d getResetPose() {
+        return new Pose2d(values[reset], values[reset + 1], new Rotation2d(values[reset + 2]));
+    }
+
+    /**
+     * @return true if the current record is a vision measurement rather than
+     *         an odometry sample
+     */
+    public boolean isVisionMeasurement() {
+        return vision >= 0 && !Double.isNaN(values[vision]);
+    }
+
+    /**
+     * @return The pose measured by the vision measurement in the current record
+     */
+    public Pose2d getVisionPose() {
+        return new Pose2d(values[vision], values[vision + 1], new Rotation2d(values[vision + 2]));
+    }
+
+    /**
+     * @return The time the vision measurement in the current record was taken,
+     *         in the same timebase as {@link #getTimestamp()}
+     */
+    public double getVisionTimestamp() {
+        return values[vision + 3];
+    }
+
+    /**
+     * @param axis 0 for x, 1 for y or 2 for heading
+     * @return The standard deviation the vision measurement in the current
+     *         record was fused with, in meters or radians
+     */
+    public double getVisionStdDev(int axis) {
+        return values[vision + 4 + axis];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
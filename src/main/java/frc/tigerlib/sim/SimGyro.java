@@ -0,0 +1,40 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+/** A gyro that reports the heading of a physics model. */
+final class SimGyro implements Gyro {
+    private volatile double heading;
+    private volatile double rate;
+    private volatile double offset;
+
+    /**
+     * @param headingRadians Heading, counterclockwise positive
+     * @param rateRadiansPerSecond Turn rate, counterclockwise positive
+     */
+    void setState(double headingRadians, double rateRadiansPerSecond) {
+        heading = headingRadians;
+        rate = rateRadiansPerSecond;
+    }
+
+    @Override
+    public void calibrate() {}
+
+    @Override
+    public void reset() {
+        offset = heading;
+    }
+
+    @Override
+    public double getAngle() {
+        return -Math.toDegrees(heading - offset);
+    }
+
+    @Override
+    public double getRate() {
+        return -Math.toDegrees(rate);
+    }
+
+    @Override
+    public void close() {}
+}
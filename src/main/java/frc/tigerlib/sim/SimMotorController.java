@@ -0,0 +1,52 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/** A motor controller that only remembers its output, for physics models. */
+final class SimMotorController implements MotorController {
+    private double speed;
+    private boolean inverted;
+
+    /**
+     * @return The voltage the motor is driven at, after inversion
+     */
+    double getAppliedVoltage() {
+        return (inverted ? -speed : speed) * RobotController.getBatteryVoltage();
+    }
+
+    @Override
+    public void set(double speed) {
+        this.speed = Math.max(-1.0, Math.min(1.0, speed));
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        set(outputVolts / RobotController.getBatteryVoltage());
+    }
+
+    @Override
+    public double get() {
+        return speed;
+    }
+
+    @Override
+    public void setInverted(boolean isInverted) {
+        inverted = isInverted;
+    }
+
+    @Override
+    public boolean getInverted() {
+        return inverted;
+    }
+
+    @Override
+    public void disable() {
+        speed = 0.0;
+    }
+
+    @Override
+    public void stopMotor() {
+        speed = 0.0;
+    }
+}
@@ -0,0 +1,142 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+
+/**
+ * Simulated motors, encoders and gyro for a
+ * {@link frc.tigerlib.subsystem.drive.DifferentialDriveSubsystem}, backed by a
+ * {@link DifferentialDrivetrainSim}.
+ *
+ * <p>
+ * Pass the motors and gyro to the subsystem in place of the real ones, and
+ * return the encoder readings from its distance and velocity methods:
+ *
+ * <pre>
+ * <code>
+ * public class SimDriveSystem extends DifferentialDriveSubsystem {
+ *   private final SimulatedDifferentialDrive sim;
+ *
+ *   public SimDriveSystem(SimulatedDifferentialDrive sim) {
+ *     this.sim = sim;
+ *     setGyro(sim.getGyro());
+ *     setMotors(sim.getLeftMotor(), sim.getRightMotor());
+ *   }
+ *
+ *   protected double getLeftDistance() {
+ *     return sim.getLeftDistance();
+ *   }
+ *   ...
+ * }
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The right motor is mounted mirrored, which
+ * {@link frc.tigerlib.subsystem.drive.DifferentialDriveSubsystem} undoes by
+ * inverting it.
+ */
+public final class SimulatedDifferentialDrive implements SimulatedMechanism {
+    private final DifferentialDrivetrainSim physics;
+    private final SimMotorController leftMotor = new SimMotorController();
+    private final SimMotorController rightMotor = new SimMotorController();
+    private final SimGyro gyro = new SimGyro();
+    private double leftOffset;
+    private double rightOffset;
+
+    /**
+     * @param physics Drivetrain model, e.g. from
+     *                {@link DifferentialDrivetrainSim#createKitbotSim}
+     */
+    public SimulatedDifferentialDrive(DifferentialDrivetrainSim physics) {
+        this.physics = physics;
+    }
+
+    @Override
+    public void update(double dtSeconds) {
+        double previousHeading = physics.getHeading().getRadians();
+        physics.setInputs(leftMotor.getAppliedVoltage(), -rightMotor.getAppliedVoltage());
+        physics.update(dtSeconds);
+
+        double heading = physics.getHeading().getRadians();
+        gyro.setState(heading, Math.IEEEremainder(heading - previousHeading, 2.0 * Math.PI) / dtSeconds);
+    }
+
+    /**
+     * @return The left motor
+     */
+    public MotorController getLeftMotor() {
+        return leftMotor;
+    }
+
+    /**
+     * @return The right motor
+     */
+    public MotorController getRightMotor() {
+        return rightMotor;
+    }
+
+    /**
+     * @return A gyro that reads the simulated heading
+     */
+    public Gyro getGyro() {
+        return gyro;
+    }
+
+    /**
+     * @return Distance traveled by the left wheels since the last reset, in
+     *         meters
+     */
+    public double getLeftDistance() {
+        return physics.getLeftPositionMeters() - leftOffset;
+    }
+
+    /**
+     * @return Distance traveled by the right wheels since the last reset, in
+     *         meters
+     */
+    public double getRightDistance() {
+        return physics.getRightPositionMeters() - rightOffset;
+    }
+
+    /**
+     * @return Speed of the left wheels, in meters per second
+     */
+    public double getLeftVelocity() {
+        return physics.getLeftVelocityMetersPerSecond();
+    }
+
+    /**
+     * @return Speed of the right wheels, in meters per second
+     */
+    public double getRightVelocity() {
+        return physics.getRightVelocityMetersPerSecond();
+    }
+
+    /** Zero both encoders. */
+    public void resetEncoders() {
+        leftOffset = physics.getLeftPositionMeters();
+        rightOffset = physics.getRightPositionMeters();
+    }
+
+    /**
+     * Get the true position of the robot, to score a scenario against.
+     *
+     * @return Simulated pose
+     */
+    public Pose2d getPose() {
+        return physics.getPose();
+    }
+
+    /**
+     * Move the simulated robot, e.g. to the start of an autonomous routine.
+     *
+     * @param pose New pose
+     */
+    public void setPose(Pose2d pose) {
+        physics.setPose(pose);
+        gyro.setState(pose.getRotation().getRadians(), 0.0);
+    }
+}
@@ -0,0 +1,159 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/**
+ * Simulated motors, encoders and gyro for a
+ * {@link frc.tigerlib.subsystem.drive.MecanumDriveSubsystem}.
+ *
+ * <p>
+ * WPILib doesn't have a mecanum drivetrain model, so each wheel's speed
+ * follows its motor's voltage with a first-order lag, and the wheels move the
+ * robot through the kinematics without slip. Wire it up like a
+ * {@link SimulatedDifferentialDrive}, returning {@link #getWheelPositions()}
+ * and {@link #getWheelSpeeds()} from the subsystem.
+ *
+ * <p>
+ * The right motors are mounted mirrored, which
+ * {@link frc.tigerlib.subsystem.drive.MecanumDriveSubsystem} undoes by
+ * inverting them.
+ */
+public final class SimulatedMecanumDrive implements SimulatedMechanism {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+
+    private final MecanumDriveKinematics kinematics;
+    private final double maxWheelSpeed;
+    private final double timeConstant;
+    // Front left, front right, rear left, rear right, matching the kinematics
+    private final SimMotorController[] motors = {
+        new SimMotorController(), new SimMotorController(), new SimMotorController(), new SimMotorController()
+    };
+    private final double[] mounting = {1.0, -1.0, 1.0, -1.0};
+    private final double[] speeds = new double[4];
+    private final double[] positions = new double[4];
+    private final SimGyro gyro = new SimGyro();
+
+    private double x;
+    private double y;
+    private double heading;
+
+    /**
+     * @param kinematics                   Kinematics of the drivetrain
+     * @param maxWheelSpeedMetersPerSecond Free speed of a wheel at 12 volts
+     * @param timeConstantSeconds          Time for a wheel to reach 63% of a new
+     *                                     speed
+     */
+    public SimulatedMecanumDrive(
+            MecanumDriveKinematics kinematics, double maxWheelSpeedMetersPerSecond, double timeConstantSeconds) {
+        this.kinematics = kinematics;
+        maxWheelSpeed = maxWheelSpeedMetersPerSecond;
+        timeConstant = timeConstantSeconds;
+    }
+
+    @Override
+    public void update(double dtSeconds) {
+        double response = timeConstant > 0.0 ? 1.0 - Math.exp(-dtSeconds / timeConstant) : 1.0;
+        for (int wheel = 0; wheel < 4; wheel++) {
+            double target = mounting[wheel] * motors[wheel].getAppliedVoltage() / NOMINAL_VOLTAGE * maxWheelSpeed;
+            double speed = speeds[wheel] + (target - speeds[wheel]) * response;
+            positions[wheel] += 0.5 * (speeds[wheel] + speed) * dtSeconds;
+            speeds[wheel] = speed;
+        }
+
+        ChassisSpeeds chassis = kinematics.toChassisSpeeds(
+                new MecanumDriveWheelSpeeds(speeds[0], speeds[1], speeds[2], speeds[3]));
+
+        // Integrate at the middle of the step's rotation
+        double midHeading = heading + 0.5 * chassis.omegaRadiansPerSecond * dtSeconds;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        x += (cos * chassis.vxMetersPerSecond - sin * chassis.vyMetersPerSecond) * dtSeconds;
+        y += (sin * chassis.vxMetersPerSecond + cos * chassis.vyMetersPerSecond) * dtSeconds;
+        heading += chassis.omegaRadiansPerSecond * dtSeconds;
+        gyro.setState(heading, chassis.omegaRadiansPerSecond);
+    }
+
+    /**
+     * @return The front-left motor
+     */
+    public MotorController getFrontLeftMotor() {
+        return motors[0];
+    }
+
+    /**
+     * @return The rear-left motor
+     */
+    public MotorController getRearLeftMotor() {
+        return motors[2];
+    }
+
+    /**
+     * @return The front-right motor
+     */
+    public MotorController getFrontRightMotor() {
+        return motors[1];
+    }
+
+    /**
+     * @return The rear-right motor
+     */
+    public MotorController getRearRightMotor() {
+        return motors[3];
+    }
+
+    /**
+     * @return A gyro that reads the simulated heading
+     */
+    public Gyro getGyro() {
+        return gyro;
+    }
+
+    /**
+     * @return Distance traveled by each wheel since the last reset
+     */
+    public MecanumDriveWheelPositions getWheelPositions() {
+        return new MecanumDriveWheelPositions(positions[0], positions[1], positions[2], positions[3]);
+    }
+
+    /**
+     * @return Speed of each wheel
+     */
+    public MecanumDriveWheelSpeeds getWheelSpeeds() {
+        return new MecanumDriveWheelSpeeds(speeds[0], speeds[1], speeds[2], speeds[3]);
+    }
+
+    /** Zero the wheel encoders. */
+    public void resetEncoders() {
+        for (int wheel = 0; wheel < 4; wheel++) {
+            positions[wheel] = 0.0;
+        }
+    }
+
+    /**
+     * Get the true position of the robot, to score a scenario against.
+     *
+     * @return Simulated pose
+     */
+    public Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+
+    /**
+     * Move the simulated robot, e.g. to the start of an autonomous routine.
+     *
+     * @param pose New pose
+     */
+    public void setPose(Pose2d pose) {
+        x = pose.getX();
+        y = pose.getY();
+        heading = pose.getRotation().getRadians();
+        gyro.setState(heading, 0.0);
+    }
+}
@@ -0,0 +1,15 @@
+package frc.tigerlib.sim;
+
+/**
+ * A physics model stepped by the {@link SimulationHarness} after each
+ * scheduler cycle.
+ */
+@FunctionalInterface
+public interface SimulatedMechanism {
+    /**
+     * Advance the model using the outputs set during the last cycle.
+     *
+     * @param dtSeconds Time to advance
+     */
+    void update(double dtSeconds);
+}
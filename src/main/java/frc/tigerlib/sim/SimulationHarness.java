@@ -0,0 +1,148 @@
+package frc.tigerlib.sim;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.tigerlib.telemetry.LoopTiming;
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the {@link CommandScheduler} headless on a virtual clock, as fast as the
+ * CPU allows, instead of in real time.
+ *
+ * <p>
+ * {@link #start(boolean)} initializes the simulated HAL and pauses its clock.
+ * Each {@link #step()} then runs one scheduler cycle, advances every
+ * {@link SimulatedMechanism} by the cycle's period, and steps the clock, which
+ * also fires any {@link edu.wpi.first.wpilibj.Notifier}s that came due. A 15
+ * second autonomous routine takes 750 steps, usually a few milliseconds each.
+ *
+ * <p>
+ * The HAL, the scheduler and the clock are singletons, so one JVM runs one
+ * scenario at a time. Use {@link ForkedScenarioRunner} to run scenarios in
+ * parallel.
+ */
+public final class SimulationHarness {
+    private static final double DEFAULT_PERIOD = 0.02;
+
+    private static final ArrayList<SimulatedMechanism> mechanisms = new ArrayList<>();
+    private static double period = DEFAULT_PERIOD;
+    private static double time;
+    private static boolean started;
+
+    private SimulationHarness() {}
+
+    /**
+     * Initialize the simulated HAL, pause its clock and enable the robot.
+     *
+     * @param autonomous true to enable in autonomous, false for teleop
+     */
+    public static void start(boolean autonomous) {
+        initialize();
+        DriverStationSim.setAutonomous(autonomous);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+
+    /** Initialize the simulated HAL and pause its clock, without enabling. */
+    static void initialize() {
+        if (!started) {
+            if (!HAL.initialize(500, 0)) {
+                throw new IllegalStateException("Failed to initialize the HAL");
+            }
+            SimHooks.pauseTiming();
+            started = true;
+        }
+    }
+
+    /** Disable the robot, as at the end of a match. */
+    public static void disable() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+
+    /**
+     * Add a physics model to step after each scheduler cycle.
+     *
+     * @param mechanism Model to add
+     */
+    public static void addMechanism(SimulatedMechanism mechanism) {
+        mechanisms.add(mechanism);
+    }
+
+    /**
+     * Cancel all commands, remove all physics models and clear
+     * {@link LoopTiming} stats, to set up another scenario in the same JVM. The
+     * clock keeps running from where it was.
+     */
+    public static void reset() {
+        CommandScheduler.getInstance().cancelAll();
+        mechanisms.clear();
+        LoopTiming.reset();
+    }
+
+    /**
+     * Set the time between scheduler cycles. Defaults to 0.02 seconds.
+     *
+     * @param periodSeconds Cycle period
+     */
+    public static void setPeriod(double periodSeconds) {
+        if (!(periodSeconds > 0.0)) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        period = periodSeconds;
+    }
+
+    /**
+     * @return The virtual time elapsed over every step, in seconds
+     */
+    public static double getTime() {
+        return time;
+    }
+
+    /** Run one scheduler cycle and advance the models and clock by a period. */
+    public static void step() {
+        DriverStation.refreshData();
+        CommandScheduler.getInstance().run();
+        for (int i = 0; i < mechanisms.size(); i++) {
+            mechanisms.get(i).update(period);
+        }
+        SimHooks.stepTiming(period);
+        time += period;
+    }
+
+    /**
+     * Step for a length of virtual time.
+     *
+     * @param seconds Time to run for
+     */
+    public static void run(double seconds) {
+        long steps = Math.round(seconds / period);
+        for (long i = 0; i < steps; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Step until a condition is met, checked after each step.
+     *
+     * @param done           Condition to stop at, e.g. a command finishing
+     * @param timeoutSeconds Longest virtual time to run for
+     * @return true if the condition was met before the timeout
+     */
+    public static boolean runUntil(BooleanSupplier done, double timeoutSeconds) {
+        long steps = Math.round(timeoutSeconds / period);
+        for (long i = 0; i < steps; i++) {
+            step();
+            if (done.getAsBoolean()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
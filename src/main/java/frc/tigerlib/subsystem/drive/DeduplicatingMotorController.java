@@ -0,0 +1,148 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/**
+ * Wraps a {@link MotorController} and skips {@link #set(double)} and
+ * {@link #setVoltage(double)} calls that wouldn't change its output, to keep
+ * idle motors off the CAN bus.
+ *
+ * <p>
+ * A speed is sent only if it differs from the last one sent by more than the
+ * epsilon, or if the keep-alive interval has passed since the last send.
+ * Voltages are deduplicated the same way, with the epsilon scaled to a
+ * nominal 12 volt battery, and are passed to the wrapped controller's own
+ * {@link MotorController#setVoltage(double)} so its voltage compensation
+ * still applies. The drive subsystems wrap their motors in these, configured
+ * with {@link DriveSubsystemBase#setOutputDeduplication(double, double)}.
+ */
+public final class DeduplicatingMotorController implements MotorController {
+    private static final double NOMINAL_VOLTAGE = 12.0;
+
+    private final MotorController motor;
+    private double epsilon;
+    private long keepAliveNanos;
+
+    private volatile double commandedSpeed;
+    private double lastSpeed = Double.NaN;
+    private double lastVoltage = Double.NaN;
+    private long lastSendNanos;
+    private long sentCount;
+    private long suppressedCount;
+
+    /**
+     * @param motor            Motor controller to wrap
+     * @param epsilon          Largest change in speed that isn't sent
+     * @param keepAliveSeconds Longest time between sends
+     */
+    public DeduplicatingMotorController(MotorController motor, double epsilon, double keepAliveSeconds) {
+        this.motor = motor;
+        configure(epsilon, keepAliveSeconds);
+    }
+
+    /**
+     * Change the deduplication settings.
+     * 
+     * @param epsilon          Largest change in speed that isn't sent, 0 to only
+     *                         skip identical speeds
+     * @param keepAliveSeconds Longest time between sends
+     */
+    public void configure(double epsilon, double keepAliveSeconds) {
+        this.epsilon = epsilon;
+        keepAliveNanos = (long) (keepAliveSeconds * 1e9);
+    }
+
+    /**
+     * @return The wrapped motor controller
+     */
+    public MotorController getMotor() {
+        return motor;
+    }
+
+    /**
+     * @return The last speed passed to {@link #set(double)}, whether or not it
+     *         was sent, or the last voltage passed to
+     *         {@link #setVoltage(double)} as a fraction of 12 volts
+     */
+    public double getCommanded() {
+        return commandedSpeed;
+    }
+
+    /**
+     * @return The number of speeds sent to the motor controller
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * @return The number of speeds skipped
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @Override
+    public void set(double speed) {
+        commandedSpeed = speed;
+        long now = System.nanoTime();
+        if (Math.abs(speed - lastSpeed) <= epsilon && now - lastSendNanos < keepAliveNanos) {
+            suppressedCount++;
+            return;
+        }
+
+        motor.set(speed);
+        lastSpeed = speed;
+        lastVoltage = Double.NaN;
+        lastSendNanos = now;
+        sentCount++;
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        commandedSpeed = outputVolts / NOMINAL_VOLTAGE;
+        long now = System.nanoTime();
+        if (Math.abs(outputVolts - lastVoltage) <= epsilon * NOMINAL_VOLTAGE
+                && now - lastSendNanos < keepAliveNanos) {
+            suppressedCount++;
+            return;
+        }
+
+        motor.setVoltage(outputVolts);
+        lastVoltage = outputVolts;
+        lastSpeed = Double.NaN;
+        lastSendNanos = now;
+        sentCount++;
+    }
+
+    @Override
+    public double get() {
+        return motor.get();
+    }
+
+    @Override
+    public void setInverted(boolean isInverted) {
+        motor.setInverted(isInverted);
+        lastSpeed = Double.NaN;
+        lastVoltage = Double.NaN;
+    }
+
+    @Override
+    public boolean getInverted() {
+        return motor.getInverted();
+    }
+
+    @Override
+    public void disable() {
+        motor.disable();
+        lastSpeed = Double.NaN;
+        lastVoltage = Double.NaN;
+    }
+
+    @Override
+    public void stopMotor() {
+        motor.stopMotor();
+        lastSpeed = Double.NaN;
+        lastVoltage = Double.NaN;
+    }
+}
@@ -1,6 +1,8 @@
 package frc.tigerlib.subsystem.drive;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive;
 import edu.wpi.first.wpilibj.motorcontrol.MotorController;
@@ -84,33 +86,92 @@ public abstract class DifferentialDriveSubsystem extends DriveSubsystemBase {
         void drive(double xSpeed, double rotation);
     }
 
+    /**
+     * A {@link DifferentialDrive} that can also arcade drive without
+     * allocating.
+     */
+    private static final class InPlaceDifferentialDrive extends DifferentialDrive {
+        private final MotorController leftMotor;
+        private final MotorController rightMotor;
+
+        InPlaceDifferentialDrive(MotorController leftMotor, MotorController rightMotor) {
+            super(leftMotor, rightMotor);
+            this.leftMotor = leftMotor;
+            this.rightMotor = rightMotor;
+        }
+
+        /**
+         * Same as {@link DifferentialDrive#arcadeDrive(double, double)}, with
+         * the inverse kinematics done in place.
+         */
+        void arcadeDriveInPlace(double xSpeed, double zRotation) {
+            xSpeed = MathUtil.clamp(MathUtil.applyDeadband(xSpeed, m_deadband), -1.0, 1.0);
+            zRotation = MathUtil.clamp(MathUtil.applyDeadband(zRotation, m_deadband), -1.0, 1.0);
+
+            // Square the inputs for finer control at low speeds
+            xSpeed = Math.copySign(xSpeed * xSpeed, xSpeed);
+            zRotation = Math.copySign(zRotation * zRotation, zRotation);
+
+            double leftSpeed = xSpeed - zRotation;
+            double rightSpeed = xSpeed + zRotation;
+
+            double greaterInput = Math.max(Math.abs(xSpeed), Math.abs(zRotation));
+            double lesserInput = Math.min(Math.abs(xSpeed), Math.abs(zRotation));
+            if (greaterInput == 0.0) {
+                leftSpeed = 0.0;
+                rightSpeed = 0.0;
+            } else {
+                double saturatedInput = (greaterInput + lesserInput) / greaterInput;
+                leftSpeed /= saturatedInput;
+                rightSpeed /= saturatedInput;
+            }
+
+            leftMotor.set(leftSpeed * m_maxOutput);
+            rightMotor.set(rightSpeed * m_maxOutput);
+            feed();
+        }
+    }
+
     protected DifferentialDrive drive;
     protected DifferentialDriveOdometry odometer;
     protected DriveMethod driveMethod;
     protected boolean inverted;
 
+    private InPlaceDifferentialDrive inPlaceDrive;
+    private final double[] inPlacePose = new double[3];
+    private double previousLeft;
+    private double previousRight;
+    private double previousHeading;
+    private double headingOffset;
+
     /** Constructor. */
     protected DifferentialDriveSubsystem() {}
 
     /**
      * Set the left and right motors to create the {@link DifferentialDrive} and 
-     * {@link DifferentialDriveOdometry} objects.
+     * {@link DifferentialDriveOdometry} objects. Odometry is created once the
+     * gyro is ready.
      * 
      * @param leftMotor left motor
      * @param rightMotor right motor
      */
     protected void setMotors(MotorController leftMotor, MotorController rightMotor) {
         rightMotor.setInverted(true);
-        drive = new DifferentialDrive(leftMotor, rightMotor);
+        inPlaceDrive = new InPlaceDifferentialDrive(deduplicate(leftMotor), deduplicate(rightMotor));
+        drive = inPlaceDrive;
         drive.setDeadband(0.0);
         setStandard();
 
-        resetEncoders();
-        odometer = new DifferentialDriveOdometry(
-            gyro.getRotation2d(),
-            0.0,
-            0.0
-        );
+        whenGyroReady(() -> {
+            resetEncoders();
+            Rotation2d gyroAngle = gyro.getRotation2d();
+            odometer = new DifferentialDriveOdometry(
+                gyroAngle,
+                0.0,
+                0.0
+            );
+            resetInPlaceOdometry(new Pose2d(), gyroAngle);
+        });
     }
 
     /**
@@ -128,31 +189,115 @@ public abstract class DifferentialDriveSubsystem extends DriveSubsystemBase {
 
     @Override
     public void setStandard() {
-        driveMethod = (xSpeed, rotation) -> drive.arcadeDrive(xSpeed, rotation);
+        driveMethod = (xSpeed, rotation) -> arcadeDrive(xSpeed, rotation);
 
         inverted = false;
     }
 
     @Override
     public void setInverted() {
-        driveMethod = (xSpeed, rotation) -> drive.arcadeDrive(-xSpeed, rotation);
+        driveMethod = (xSpeed, rotation) -> arcadeDrive(-xSpeed, rotation);
 
         inverted = true;
     }
 
+    private void arcadeDrive(double xSpeed, double rotation) {
+        if (isAllocationFree() && inPlaceDrive == drive) {
+            inPlaceDrive.arcadeDriveInPlace(xSpeed, rotation);
+        } else {
+            drive.arcadeDrive(xSpeed, rotation);
+        }
+    }
+
     @Override
     public boolean isInverted() {
         return inverted;
     }
 
-    public void setRobotPosition(Pose2d pose) {
+    @Override
+    protected Pose2d resetOdometry(Pose2d pose) {
         resetEncoders();
-        odometer.resetPosition(gyro.getRotation2d(), 0.0, 0.0, pose);
-        robotPosition = odometer.getPoseMeters();
+        Rotation2d gyroAngle = gyro.getRotation2d();
+        odometer.resetPosition(gyroAngle, 0.0, 0.0, pose);
+        resetInPlaceOdometry(pose, gyroAngle);
+        return odometer.getPoseMeters();
+    }
+
+    private void resetInPlaceOdometry(Pose2d pose, Rotation2d gyroAngle) {
+        inPlacePose[0] = pose.getX();
+        inPlacePose[1] = pose.getY();
+        inPlacePose[2] = pose.getRotation().getRadians();
+        headingOffset = inPlacePose[2] - gyroAngle.getRadians();
+        previousHeading = inPlacePose[2];
+        previousLeft = 0.0;
+        previousRight = 0.0;
+    }
+
+    /**
+     * Get the speed measured by the left side encoder. Override to include it
+     * in the sensor snapshot.
+     * 
+     * @return speed, or 0 if not overridden
+     */
+    protected double getLeftVelocity() {
+        return 0.0;
+    }
+
+    /**
+     * Get the speed measured by the right side encoder. Override to include it
+     * in the sensor snapshot.
+     * 
+     * @return speed, or 0 if not overridden
+     */
+    protected double getRightVelocity() {
+        return 0.0;
+    }
+
+    @Override
+    protected void readWheels(double[] positions, double[] velocities) {
+        positions[0] = getLeftDistance();
+        positions[1] = getRightDistance();
+        velocities[0] = getLeftVelocity();
+        velocities[1] = getRightVelocity();
+    }
+
+    @Override
+    protected Pose2d updateOdometry(DriveSensorSnapshot sensors) {
+        if (odometer == null) {
+            return null;
+        }
+        return odometer.update(sensors.getGyroRotation(), sensors.getWheelPosition(0), sensors.getWheelPosition(1));
+    }
+
+    @Override
+    protected boolean updateOdometryInPlace(DriveSensorSnapshot sensors, double[] pose) {
+        if (odometer == null) {
+            return false;
+        }
+
+        double left = sensors.getWheelPosition(0);
+        double right = sensors.getWheelPosition(1);
+        double heading = PoseMath.wrapAngle(sensors.getGyroRadians() + headingOffset);
+
+        PoseMath.exp(
+            inPlacePose,
+            ((left - previousLeft) + (right - previousRight)) / 2.0,
+            0.0,
+            PoseMath.wrapAngle(heading - previousHeading),
+            inPlacePose);
+        inPlacePose[2] = heading;
+
+        previousLeft = left;
+        previousRight = right;
+        previousHeading = heading;
+        System.arraycopy(inPlacePose, 0, pose, 0, 3);
+        return true;
     }
 
     @Override
-    public void periodic() {
-        robotPosition = odometer.update(gyro.getRotation2d(), getLeftDistance(), getRightDistance());
+    protected void closeDrive() {
+        if (drive != null) {
+            drive.close();
+        }
     }
 }
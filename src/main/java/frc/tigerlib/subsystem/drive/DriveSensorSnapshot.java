@@ -0,0 +1,147 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+/**
+ * The drive sensors, read all at once. A {@link DriveSubsystemBase} reads its
+ * gyro and wheel encoders into a snapshot once per scheduler cycle, so
+ * odometry, field-oriented driving and user code all see the same instant
+ * without each going back to the CAN bus or SPI.
+ *
+ * @see DriveSubsystemBase#getSensors()
+ */
+public final class DriveSensorSnapshot {
+    private double timestamp = Double.NaN;
+    private double gyroAngle;
+    private double gyroRate;
+    private Rotation2d gyroRotation;
+    final double[] wheelPositions;
+    final double[] wheelVelocities;
+    final double[] wheelAngles;
+
+    DriveSensorSnapshot(int wheelCount) {
+        wheelPositions = new double[wheelCount];
+        wheelVelocities = new double[wheelCount];
+        wheelAngles = new double[wheelCount];
+    }
+
+    /**
+     * Read the gyro and stamp the snapshot. Wheels are read separately by the
+     * drive subsystem.
+     */
+    void captureGyro(double timestamp, Gyro gyro) {
+        this.timestamp = timestamp;
+        if (gyro != null) {
+            gyroAngle = gyro.getAngle();
+            gyroRate = gyro.getRate();
+            gyroRotation = null;
+        }
+    }
+
+    void copyFrom(DriveSensorSnapshot other) {
+        timestamp = other.timestamp;
+        gyroAngle = other.gyroAngle;
+        gyroRate = other.gyroRate;
+        gyroRotation = other.gyroRotation;
+        System.arraycopy(other.wheelPositions, 0, wheelPositions, 0, wheelPositions.length);
+        System.arraycopy(other.wheelVelocities, 0, wheelVelocities, 0, wheelVelocities.length);
+        System.arraycopy(other.wheelAngles, 0, wheelAngles, 0, wheelAngles.length);
+    }
+
+    /**
+     * Get the time the sensors were read.
+     * 
+     * @return Time in seconds, in the same timebase as
+     *         {@link edu.wpi.first.wpilibj.Timer#getFPGATimestamp()}, or NaN if
+     *         the sensors haven't been read yet
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the gyro heading, in the convention of {@link Gyro#getAngle()}.
+     * 
+     * @return Heading in degrees, clockwise positive
+     */
+    public double getGyroAngle() {
+        return gyroAngle;
+    }
+
+    /**
+     * Get the gyro turn rate, in the convention of {@link Gyro#getRate()}.
+     * 
+     * @return Rate in degrees per second, clockwise positive
+     */
+    public double getGyroRate() {
+        return gyroRate;
+    }
+
+    /**
+     * Get the gyro heading as a {@link Rotation2d}, as returned by
+     * {@link Gyro#getRotation2d()}. Created on first use each cycle, so
+     * allocation-free code should use {@link #getGyroAngle()} instead.
+     * 
+     * @return Heading, counterclockwise positive
+     */
+    public Rotation2d getGyroRotation() {
+        if (gyroRotation == null) {
+            gyroRotation = Rotation2d.fromDegrees(-gyroAngle);
+        }
+        return gyroRotation;
+    }
+
+    /**
+     * Get the gyro heading in radians, counterclockwise positive, without
+     * creating a {@link Rotation2d}.
+     * 
+     * @return Heading in radians
+     */
+    public double getGyroRadians() {
+        return Math.toRadians(-gyroAngle);
+    }
+
+    /**
+     * Get the number of wheels in the snapshot. Differential drives have a left
+     * and a right wheel. Mecanum drives have front-left, front-right, rear-left
+     * and rear-right wheels, in that order. Swerve drives have one wheel per
+     * module, in the order the modules were set.
+     * 
+     * @return Number of wheels
+     */
+    public int getWheelCount() {
+        return wheelPositions.length;
+    }
+
+    /**
+     * Get the distance traveled by a wheel.
+     * 
+     * @param wheel Index of the wheel
+     * @return Distance in meters
+     */
+    public double getWheelPosition(int wheel) {
+        return wheelPositions[wheel];
+    }
+
+    /**
+     * Get the speed of a wheel.
+     * 
+     * @param wheel Index of the wheel
+     * @return Speed in meters per second
+     */
+    public double getWheelVelocity(int wheel) {
+        return wheelVelocities[wheel];
+    }
+
+    /**
+     * Get the direction a wheel is steered.
+     * 
+     * @param wheel Index of the wheel
+     * @return Angle in radians, counterclockwise positive, or 0 for wheels that
+     *         don't steer
+     */
+    public double getWheelAngle(int wheel) {
+        return wheelAngles[wheel];
+    }
+}
@@ -4,41 +4,932 @@
 
 package frc.tigerlib.subsystem.drive;
 
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.util.sendable.SendableRegistry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.tigerlib.interpolable.ConcurrentTimeInterpolatingBuffer;
 import frc.tigerlib.subsystem.InvertibleSubsystem;
+import frc.tigerlib.telemetry.BinaryLogger;
+import frc.tigerlib.telemetry.LoopTimer;
+import frc.tigerlib.telemetry.LoopTiming;
+import frc.tigerlib.telemetry.TelemetryPublisher;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A base for drive subsystems that can be subclassed for easier
  * bootstrapping.
+ *
+ * <p>
+ * Odometry is updated in {@link #periodic()} by default. Call
+ * {@link #startOdometryThread(double)} to update it on a dedicated thread at a
+ * higher rate instead.
+ *
+ * <p>
+ * The gyro and wheel encoders are read once per scheduler cycle into a
+ * {@link DriveSensorSnapshot}, which odometry, field-oriented driving and user
+ * code share through {@link #getSensors()}.
+ *
+ * <p>
+ * By default, odometry and driving go through WPILib's immutable geometry
+ * classes, which allocate a few objects every cycle. Subclasses can call
+ * {@link #setAllocationFree(boolean)} to keep the pose in primitive fields
+ * instead, so a steady-state cycle doesn't allocate at all.
+ *
+ * <p>
+ * Delayed pose measurements, such as from vision, can be fused with odometry
+ * using {@link #addVisionMeasurement(Pose2d, double)}. Each measurement
+ * corrects the pose at the time it was taken, and the odometry since then is
+ * replayed on top of the correction.
+ *
+ * <p>
+ * The pose, wheel speeds and inversion state are published to NetworkTables
+ * under {@code TigerLib/<subsystem name>}, and the pose to {@link #gameField},
+ * by a {@link TelemetryPublisher} on a background thread, once
+ * {@link #enableTelemetry()} is called.
+ *
+ * <p>
+ * Every odometry sample can be logged to a compact binary file with
+ * {@link #startLogging(Path)}, without slowing the loop down, along with every
+ * position reset and vision measurement, so the log can be replayed.
+ *
+ * <p>
+ * Drive motors are wrapped in {@link DeduplicatingMotorController}s, so a
+ * motor is only sent a new speed when it changes, plus a keep-alive.
+ *
+ * <p>
+ * Gyros that take a long time to calibrate can be calibrated in the background
+ * with {@link #setGyroAsync(Gyro)}. Odometry waits until the gyro is ready.
  */
-public abstract class DriveSubsystemBase extends SubsystemBase implements InvertibleSubsystem {
+public abstract class DriveSubsystemBase extends SubsystemBase implements InvertibleSubsystem, AutoCloseable {
+  /** Number of timestamped poses kept, 2 seconds at 250 Hz. */
+  private static final int POSE_HISTORY_SIZE = 500;
+  /** Number of log records waiting to be written, 4 seconds at 250 Hz. */
+  private static final int LOG_CAPACITY = 1000;
+
   protected Gyro gyro;
-  protected Pose2d robotPosition;
+  protected volatile Pose2d robotPosition;
   protected Field2d gameField;
+  protected final TelemetryPublisher telemetry;
+
+  private final Object odometryLock = new Object();
+  private final DriveSensorSnapshot sensors;
+  private final DriveSensorSnapshot odometrySensors;
+  private final DriveSensorSnapshot resetSensors;
+  private final LoopTimer periodicTimer;
+  private final double[] telemetryPose = new double[3];
+  private final int telemetryX;
+  private final int telemetryY;
+  private final int telemetryHeading;
+  private final int telemetryWheelSpeeds;
+  private final int telemetryInverted;
+  private boolean telemetryEnabled;
+  private final ConcurrentTimeInterpolatingBuffer poseHistory;
+  private final ConcurrentTimeInterpolatingBuffer odometryHistory;
+  private final double[] poseSample = new double[3];
+  private final double[] odometrySample = new double[3];
+
+  // Rigid transform from the odometry frame to the fused estimate, found by
+  // vision measurements
+  private boolean corrected;
+  private double correctionX;
+  private double correctionY;
+  private double correctionTheta;
+  private double correctionCos = 1.0;
+  private double correctionSin;
+
+  private final double[] stateStdDevs = {0.1, 0.1, 0.1};
+  private final double[] visionStdDevs = {0.9, 0.9, 0.9};
+  private final double[] visionGains = new double[3];
+  private final double[] fusionOdometry = new double[3];
+  private final double[] fusionEstimate = new double[3];
+  private final double[] fusionMeasurement = new double[3];
+  private final double[] fusionTwist = new double[3];
+  private volatile double robotPositionTimestamp = Double.NaN;
+  private volatile long robotPositionVersion;
+  private volatile VersionedPose materializedPosition;
+  private volatile boolean allocationFree;
+  private Notifier odometryNotifier;
+
+  private volatile CompletableFuture<Void> gyroCalibration;
+  private Thread gyroCalibrationThread;
+  private final ArrayList<Runnable> gyroReadyActions = new ArrayList<>();
+  private volatile boolean hasGyroReadyActions;
+  private boolean runningGyroReadyActions;
+  private Pose2d pendingRobotPosition;
+
+  private DeduplicatingMotorController[] outputs = new DeduplicatingMotorController[0];
+  private double outputEpsilon = 0.0;
+  private double outputKeepAlive = 0.1;
+
+  private volatile BinaryLogger log;
+  private int logOutputCount;
+  private int logPoseField;
+  private int logEventField;
+
+  /** A robot position created on request, and which update it came from. */
+  private static final class VersionedPose {
+    final Pose2d pose;
+    final long version;
 
-  /** Constructor. */
+    VersionedPose(Pose2d pose, long version) {
+      this.pose = pose;
+      this.version = version;
+    }
+  }
+
+  /** Constructor for drive bases with a left and a right wheel. */
   protected DriveSubsystemBase() {
+    this(2);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param wheelCount Number of wheel encoders read into the sensor snapshot
+   */
+  protected DriveSubsystemBase(int wheelCount) {
+    sensors = new DriveSensorSnapshot(wheelCount);
+    odometrySensors = new DriveSensorSnapshot(wheelCount);
+    resetSensors = new DriveSensorSnapshot(wheelCount);
+    periodicTimer = LoopTiming.timer(getName() + ".periodic()");
+
     robotPosition = new Pose2d();
     gameField = new Field2d();
+
+    telemetry = new TelemetryPublisher("TigerLib/" + getName());
+    telemetryX = telemetry.addDouble("x (m)", 1e-3);
+    telemetryY = telemetry.addDouble("y (m)", 1e-3);
+    telemetryHeading = telemetry.addDouble("heading (deg)", 0.1);
+    telemetryWheelSpeeds = telemetry.addDouble("wheel 0 speed (m/s)", 1e-3);
+    for (int wheel = 1; wheel < wheelCount; wheel++) {
+      telemetry.addDouble("wheel " + wheel + " speed (m/s)", 1e-3);
+    }
+    telemetryInverted = telemetry.addBoolean("inverted");
+    telemetry.addListener(values -> {
+      if (!Double.isNaN(values[telemetryX])) {
+        gameField.setRobotPose(
+            values[telemetryX], values[telemetryY], Rotation2d.fromDegrees(values[telemetryHeading]));
+      }
+    });
+
+    poseHistory = new ConcurrentTimeInterpolatingBuffer(POSE_HISTORY_SIZE, 3);
+    poseHistory.setAngleChannels(2);
+    odometryHistory = new ConcurrentTimeInterpolatingBuffer(POSE_HISTORY_SIZE, 3);
+    odometryHistory.setAngleChannels(2);
+    updateVisionGains();
   }
 
   /**
-   * Retrieve current robot position as a {@link Pose2d}.
+   * Retrieve current robot position as a {@link Pose2d}. Never blocks, even
+   * while the odometry thread is running.
+   * 
+   * <p>
+   * When {@link #isAllocationFree() allocation-free}, the {@link Pose2d} is
+   * only created when this is called after the position has changed.
+   * 
    * @return Current robot position
    */
   public Pose2d getRobotPosition() {
-    return robotPosition;
+    if (!allocationFree) {
+      return robotPosition;
+    }
+
+    long version = robotPositionVersion;
+    VersionedPose materialized = materializedPosition;
+    if (materialized != null && materialized.version == version) {
+      return materialized.pose;
+    }
+
+    double[] pose = new double[3];
+    if (Double.isNaN(poseHistory.getLatest(pose))) {
+      return robotPosition;
+    }
+    materialized = new VersionedPose(new Pose2d(pose[0], pose[1], new Rotation2d(pose[2])), version);
+    materializedPosition = materialized;
+    return materialized.pose;
   }
-  
+
+  /**
+   * Retrieve the robot position at a past time, interpolated between odometry
+   * samples. Times older than the stored history return the oldest sample.
+   * 
+   * @param timestamp Time in seconds, in the same timebase as
+   *                  {@link Timer#getFPGATimestamp()}
+   * @return Robot position at that time
+   */
+  public Pose2d getRobotPosition(double timestamp) {
+    double[] pose = new double[3];
+    if (!poseHistory.getInterpolated(timestamp, pose)) {
+      return robotPosition;
+    }
+    return new Pose2d(pose[0], pose[1], new Rotation2d(pose[2]));
+  }
+
+  /**
+   * Get the time the current robot position was measured.
+   * 
+   * @return Time in seconds, in the same timebase as
+   *         {@link Timer#getFPGATimestamp()}, or NaN before the first update
+   */
+  public double getRobotPositionTimestamp() {
+    return robotPositionTimestamp;
+  }
+
   /**
    * Set the current robot position.
    * 
    * @param pose {@link Pose2d} of current robot position
    */
-  public abstract void setRobotPosition(Pose2d pose);
+  public void setRobotPosition(Pose2d pose) {
+    synchronized (odometryLock) {
+      if (!runningGyroReadyActions && (!gyroReadyActions.isEmpty() || !isGyroReady())) {
+        // Reset once odometry is set up, to the latest position set by then
+        if (pendingRobotPosition == null) {
+          gyroReadyActions.add(this::setPendingRobotPosition);
+          hasGyroReadyActions = true;
+        }
+        pendingRobotPosition = pose;
+        return;
+      }
+      pendingRobotPosition = null;
+
+      poseHistory.clear();
+      odometryHistory.clear();
+      corrected = false;
+      correctionX = 0.0;
+      correctionY = 0.0;
+      correctionTheta = 0.0;
+      correctionCos = 1.0;
+      correctionSin = 0.0;
+
+      Pose2d odometryPose = resetOdometry(pose);
+      setOdometrySample(odometryPose);
+      publishOdometry(odometryPose, Timer.getFPGATimestamp());
+      logReset(pose);
+    }
+  }
+
+  /**
+   * Keep the pose in primitive fields and update it in place, instead of
+   * creating new {@link Pose2d}s every cycle. {@link #getRobotPosition()} then
+   * creates a {@link Pose2d} only when asked, and the {@link #robotPosition}
+   * field is no longer kept up to date. Subclasses that support it also drive
+   * the motors without allocating.
+   * 
+   * <p>
+   * Must be called before the motors are set, e.g. in the constructor.
+   * Defaults to false.
+   * 
+   * @param allocationFree Update odometry in place
+   */
+  protected void setAllocationFree(boolean allocationFree) {
+    this.allocationFree = allocationFree;
+  }
+
+  /**
+   * Whether odometry is updated in place, without allocating.
+   * 
+   * @return true if allocation-free
+   * @see #setAllocationFree(boolean)
+   */
+  public boolean isAllocationFree() {
+    return allocationFree;
+  }
+
+  /**
+   * Set how much the odometry is trusted. Larger values trust odometry less and
+   * vision measurements more. Defaults to 0.1 m, 0.1 m and 0.1 radians.
+   * 
+   * @param xStdDev     standard deviation of the x position, in meters
+   * @param yStdDev     standard deviation of the y position, in meters
+   * @param thetaStdDev standard deviation of the heading, in radians
+   */
+  public void setStateStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    synchronized (odometryLock) {
+      stateStdDevs[0] = xStdDev;
+      stateStdDevs[1] = yStdDev;
+      stateStdDevs[2] = thetaStdDev;
+      updateVisionGains();
+    }
+  }
+
+  /**
+   * Set how much vision measurements are trusted by default. Larger values
+   * trust vision less. Defaults to 0.9 m, 0.9 m and 0.9 radians.
+   * 
+   * @param xStdDev     standard deviation of the x position, in meters
+   * @param yStdDev     standard deviation of the y position, in meters
+   * @param thetaStdDev standard deviation of the heading, in radians
+   */
+  public void setVisionMeasurementStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    synchronized (odometryLock) {
+      visionStdDevs[0] = xStdDev;
+      visionStdDevs[1] = yStdDev;
+      visionStdDevs[2] = thetaStdDev;
+      updateVisionGains();
+    }
+  }
+
+  /**
+   * Fuse a pose measured at a past time, such as from vision, with odometry
+   * using the default vision standard deviations.
+   * 
+   * @param visionPose {@link Pose2d} measured by the camera
+   * @param timestamp  Time the pose was measured, in seconds, in the same
+   *                   timebase as {@link Timer#getFPGATimestamp()}
+   * @see #addVisionMeasurement(Pose2d, double, double, double, double)
+   */
+  public void addVisionMeasurement(Pose2d visionPose, double timestamp) {
+    synchronized (odometryLock) {
+      fuseMeasurement(visionPose, timestamp, visionGains[0], visionGains[1], visionGains[2]);
+      logVisionMeasurement(visionPose, timestamp, visionStdDevs[0], visionStdDevs[1], visionStdDevs[2]);
+    }
+  }
+
+  /**
+   * Fuse a pose measured at a past time, such as from vision, with odometry.
+   * 
+   * @param visionPose    {@link Pose2d} measured by the camera
+   * @param timestamp     Time the pose was measured, in seconds, in the same
+   *                      timebase as {@link Timer#getFPGATimestamp()}
+   * @param visionStdDevs Standard deviations of the measurement's x (m), y (m)
+   *                      and heading (radians)
+   * @see #addVisionMeasurement(Pose2d, double, double, double, double)
+   */
+  public void addVisionMeasurement(Pose2d visionPose, double timestamp, Matrix<N3, N1> visionStdDevs) {
+    addVisionMeasurement(
+        visionPose, timestamp, visionStdDevs.get(0, 0), visionStdDevs.get(1, 0), visionStdDevs.get(2, 0));
+  }
+
+  /**
+   * Fuse a pose measured at a past time, such as from vision, with odometry.
+   * 
+   * <p>
+   * The pose estimate at the measurement's timestamp is interpolated from the
+   * pose history and moved toward the measurement, weighted by how much each is
+   * trusted. The odometry recorded since then is replayed on top of the
+   * corrected pose. Each measurement costs a binary search and a few
+   * trigonometric operations, regardless of how old it is. Measurements older
+   * than the pose history (2 seconds at 250 Hz odometry, 10 seconds at 50 Hz)
+   * are ignored.
+   * 
+   * @param visionPose  {@link Pose2d} measured by the camera
+   * @param timestamp   Time the pose was measured, in seconds, in the same
+   *                    timebase as {@link Timer#getFPGATimestamp()}
+   * @param xStdDev     standard deviation of the measured x position, in meters
+   * @param yStdDev     standard deviation of the measured y position, in meters
+   * @param thetaStdDev standard deviation of the measured heading, in radians
+   */
+  public void addVisionMeasurement(
+      Pose2d visionPose, double timestamp, double xStdDev, double yStdDev, double thetaStdDev) {
+    synchronized (odometryLock) {
+      fuseMeasurement(
+          visionPose,
+          timestamp,
+          visionGain(stateStdDevs[0], xStdDev),
+          visionGain(stateStdDevs[1], yStdDev),
+          visionGain(stateStdDevs[2], thetaStdDev));
+      logVisionMeasurement(visionPose, timestamp, xStdDev, yStdDev, thetaStdDev);
+    }
+  }
+
+  private void fuseMeasurement(Pose2d visionPose, double timestamp, double xGain, double yGain, double thetaGain) {
+    double oldest = odometryHistory.getOldestTimestamp();
+    if (Double.isNaN(oldest) || timestamp < oldest) {
+      return;
+    }
+
+    // Pose estimate when the measurement was taken
+    odometryHistory.getInterpolated(timestamp, fusionOdometry);
+    applyCorrection(fusionOdometry, fusionEstimate);
+
+    // Move it toward the measurement
+    fusionMeasurement[0] = visionPose.getX();
+    fusionMeasurement[1] = visionPose.getY();
+    fusionMeasurement[2] = visionPose.getRotation().getRadians();
+    PoseMath.log(fusionEstimate, fusionMeasurement, fusionTwist);
+    PoseMath.exp(
+        fusionEstimate, fusionTwist[0] * xGain, fusionTwist[1] * yGain, fusionTwist[2] * thetaGain, fusionEstimate);
+
+    // New transform from odometry to the estimate, so that the odometry since
+    // the measurement is replayed from the corrected pose
+    correctionTheta = PoseMath.wrapAngle(fusionEstimate[2] - fusionOdometry[2]);
+    correctionCos = Math.cos(correctionTheta);
+    correctionSin = Math.sin(correctionTheta);
+    correctionX = fusionEstimate[0] - (correctionCos * fusionOdometry[0] - correctionSin * fusionOdometry[1]);
+    correctionY = fusionEstimate[1] - (correctionSin * fusionOdometry[0] + correctionCos * fusionOdometry[1]);
+    corrected = true;
+
+    double latest = odometryHistory.getLatest(fusionOdometry);
+    applyCorrection(fusionOdometry, poseSample);
+    publishPose(null, latest);
+  }
+
+  private void applyCorrection(double[] odometryPose, double[] out) {
+    double x = odometryPose[0];
+    double y = odometryPose[1];
+    out[0] = correctionX + correctionCos * x - correctionSin * y;
+    out[1] = correctionY + correctionSin * x + correctionCos * y;
+    out[2] = PoseMath.wrapAngle(odometryPose[2] + correctionTheta);
+  }
+
+  private void updateVisionGains() {
+    for (int i = 0; i < 3; i++) {
+      visionGains[i] = visionGain(stateStdDevs[i], visionStdDevs[i]);
+    }
+  }
+
+  /**
+   * Steady-state Kalman gain for a state and a direct measurement of it.
+   */
+  private static double visionGain(double stateStdDev, double measurementStdDev) {
+    double q = stateStdDev * stateStdDev;
+    double r = measurementStdDev * measurementStdDev;
+    if (q == 0.0) {
+      return 0.0;
+    }
+    return q / (q + Math.sqrt(q * r));
+  }
+
+  /**
+   * Set how motor outputs are deduplicated. A speed within the epsilon of the
+   * last one sent to a motor is skipped, unless the keep-alive interval has
+   * passed. Defaults to only skipping identical speeds, with a keep-alive of
+   * 0.1 seconds to match the motor safety timeout.
+   * 
+   * @param epsilon          Largest change in speed that isn't sent
+   * @param keepAliveSeconds Longest time between sends to a motor
+   */
+  public void setOutputDeduplication(double epsilon, double keepAliveSeconds) {
+    outputEpsilon = epsilon;
+    outputKeepAlive = keepAliveSeconds;
+    for (DeduplicatingMotorController output : outputs) {
+      output.configure(epsilon, keepAliveSeconds);
+    }
+  }
+
+  /**
+   * Get the number of speeds sent to the drive motors.
+   * 
+   * @return Number of sends, over all motors
+   */
+  public long getSentOutputCount() {
+    long count = 0;
+    for (DeduplicatingMotorController output : outputs) {
+      count += output.getSentCount();
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of speeds skipped because the motor already had them.
+   * 
+   * @return Number of skipped sends, over all motors
+   */
+  public long getSuppressedOutputCount() {
+    long count = 0;
+    for (DeduplicatingMotorController output : outputs) {
+      count += output.getSuppressedCount();
+    }
+    return count;
+  }
+
+  /**
+   * Wrap a drive motor so repeated speeds aren't sent to it.
+   * 
+   * @param motor Motor controller to wrap
+   * @return The wrapped motor controller
+   * @see #setOutputDeduplication(double, double)
+   */
+  protected MotorController deduplicate(MotorController motor) {
+    DeduplicatingMotorController output = new DeduplicatingMotorController(motor, outputEpsilon, outputKeepAlive);
+    outputs = Arrays.copyOf(outputs, outputs.length + 1);
+    outputs[outputs.length - 1] = output;
+    return output;
+  }
+
+  /**
+   * Get the sensor values read at the start of this scheduler cycle. The
+   * snapshot is reused and overwritten every cycle.
+   * 
+   * @return Sensor snapshot
+   */
+  public DriveSensorSnapshot getSensors() {
+    return sensors;
+  }
+
+  /**
+   * Read the sensors and update odometry, unless the odometry thread is
+   * running, then commit telemetry. Timed by {@link LoopTiming}. Don't forget
+   * to call {@code super.periodic()} when overriding, after setting any
+   * telemetry channels of your own.
+   */
+  @Override
+  public void periodic() {
+    long start = periodicTimer.start();
+    if (hasGyroReadyActions && isGyroReady()) {
+      runGyroReadyActions();
+    }
+
+    if (odometryNotifier == null) {
+      captureSensors(sensors);
+      synchronized (odometryLock) {
+        runOdometry(sensors);
+        logSample(sensors);
+      }
+    } else {
+      // The odometry thread already read the sensors
+      synchronized (odometryLock) {
+        sensors.copyFrom(odometrySensors);
+      }
+    }
+    if (telemetryEnabled) {
+      updateTelemetry();
+    }
+    periodicTimer.stop(start);
+  }
+
+  /**
+   * Put {@link #gameField} on the SmartDashboard and start publishing
+   * telemetry on a background thread. Not started by the constructor, so
+   * subsystems created for simulations, benchmarks and replays don't start
+   * threads. Call once, usually from the robot's constructor.
+   */
+  public void enableTelemetry() {
+    if (telemetryEnabled) {
+      return;
+    }
+    SmartDashboard.putData(getName() + " Field", gameField);
+    telemetry.start();
+    telemetryEnabled = true;
+  }
+
+  private void updateTelemetry() {
+    if (!Double.isNaN(poseHistory.getLatest(telemetryPose))) {
+      telemetry.set(telemetryX, telemetryPose[0]);
+      telemetry.set(telemetryY, telemetryPose[1]);
+      telemetry.set(telemetryHeading, Math.toDegrees(telemetryPose[2]));
+    }
+    for (int wheel = 0; wheel < sensors.getWheelCount(); wheel++) {
+      telemetry.set(telemetryWheelSpeeds + wheel, sensors.getWheelVelocity(wheel));
+    }
+    telemetry.set(telemetryInverted, isInverted());
+    telemetry.commit();
+  }
+
+  /**
+   * Log every odometry sample to a file, on whichever thread updates odometry.
+   * Each record holds the gyro angle and rate, each wheel's position, speed
+   * and angle, the robot position, and the speed commanded to each drive
+   * motor. Records are written by a background thread, and dropped rather
+   * than waited on if the disk falls behind. Motors must be set first.
+   * Replaces any log already running.
+   * 
+   * <p>
+   * Each {@link #setRobotPosition(Pose2d) position reset} and
+   * {@link #addVisionMeasurement(Pose2d, double) vision measurement} adds a
+   * record of its own when it happens. A reset record holds the new position
+   * in the {@code reset} fields, and the sensors read just after the reset,
+   * since resetting may zero the encoders. A vision record holds the
+   * measurement, its timestamp and standard deviations in the {@code vision}
+   * fields. Both hold the robot position afterwards. The event fields are NaN
+   * in every other record.
+   * 
+   * @param file File to create or replace, e.g. on a USB drive
+   * @return The logger, to check {@link BinaryLogger#getDroppedCount()}
+   * @throws IOException if the file cannot be created
+   * @see frc.tigerlib.telemetry.BinaryLogReader
+   * @see frc.tigerlib.sim.SensorReplay
+   */
+  public BinaryLogger startLogging(Path file) throws IOException {
+    BinaryLogger logger = new BinaryLogger(file, LOG_CAPACITY);
+    logger.addDouble("gyro angle (deg)", 1e-3);
+    logger.addDouble("gyro rate (deg/s)", 1e-3);
+    for (int wheel = 0; wheel < sensors.getWheelCount(); wheel++) {
+      logger.addDouble("wheel " + wheel + " position (m)", 1e-4);
+      logger.addDouble("wheel " + wheel + " speed (m/s)", 1e-4);
+      logger.addDouble("wheel " + wheel + " angle (rad)", 1e-4);
+    }
+    logger.addDouble("x (m)", 1e-4);
+    logger.addDouble("y (m)", 1e-4);
+    logger.addDouble("heading (rad)", 1e-5);
+    int outputCount = outputs.length;
+    for (int output = 0; output < outputCount; output++) {
+      logger.addDouble("output " + output, 1e-4);
+    }
+    int eventField = logger.addDouble("reset x (m)", 1e-4);
+    logger.addDouble("reset y (m)", 1e-4);
+    logger.addDouble("reset heading (rad)", 1e-5);
+    logger.addDouble("vision x (m)", 1e-4);
+    logger.addDouble("vision y (m)", 1e-4);
+    logger.addDouble("vision heading (rad)", 1e-5);
+    logger.addDouble("vision time (s)", 1e-6);
+    logger.addDouble("vision x std dev (m)", 1e-6);
+    logger.addDouble("vision y std dev (m)", 1e-6);
+    logger.addDouble("vision heading std dev (rad)", 1e-6);
+    logger.start();
+
+    BinaryLogger previous;
+    synchronized (odometryLock) {
+      previous = log;
+      logOutputCount = outputCount;
+      logPoseField = 2 + 3 * sensors.getWheelCount();
+      logEventField = eventField;
+      log = logger;
+    }
+    if (previous != null) {
+      previous.close();
+    }
+    return logger;
+  }
+
+  /** Stop logging, writing out any records still waiting, and close the file. */
+  public void stopLogging() {
+    BinaryLogger previous;
+    synchronized (odometryLock) {
+      previous = log;
+      log = null;
+    }
+    if (previous != null) {
+      previous.close();
+    }
+  }
+
+  /**
+   * Stop the odometry thread, logging, telemetry and any gyro calibration,
+   * close the drive, and unregister from the scheduler and dashboard. The
+   * subsystem can't be used afterwards. Useful when creating many subsystems
+   * in one program, such as replaying logs.
+   */
+  @Override
+  public void close() {
+    cancelGyroCalibration();
+    stopOdometryThread();
+    stopLogging();
+    telemetry.close();
+    closeDrive();
+    gameField.close();
+    CommandScheduler.getInstance().unregisterSubsystem(this);
+    SendableRegistry.remove(this);
+  }
+
+  /**
+   * Close the drive object created by the subclass. Called by
+   * {@link #close()}.
+   */
+  protected void closeDrive() {}
+
+  private void logSample(DriveSensorSnapshot snapshot) {
+    BinaryLogger logger = log;
+    if (logger == null) {
+      return;
+    }
+
+    setLogSample(logger, snapshot);
+    logger.commit(snapshot.getTimestamp());
+  }
+
+  private void logReset(Pose2d pose) {
+    BinaryLogger logger = log;
+    if (logger == null) {
+      return;
+    }
+
+    // The reset may have zeroed the encoders, so record what odometry
+    // restarted from
+    captureSensors(resetSensors);
+    setLogSample(logger, resetSensors);
+    int field = logEventField;
+    logger.set(field, pose.getX());
+    logger.set(field + 1, pose.getY());
+    logger.set(field + 2, pose.getRotation().getRadians());
+    logger.commit(resetSensors.getTimestamp());
+    for (int i = 0; i < 3; i++) {
+      logger.set(field + i, Double.NaN);
+    }
+  }
+
+  private void logVisionMeasurement(
+      Pose2d visionPose, double timestamp, double xStdDev, double yStdDev, double thetaStdDev) {
+    BinaryLogger logger = log;
+    if (logger == null) {
+      return;
+    }
+
+    // Sensors hold still since the last sample
+    logger.set(logPoseField, poseSample[0]);
+    logger.set(logPoseField + 1, poseSample[1]);
+    logger.set(logPoseField + 2, poseSample[2]);
+    int field = logEventField + 3;
+    logger.set(field, visionPose.getX());
+    logger.set(field + 1, visionPose.getY());
+    logger.set(field + 2, visionPose.getRotation().getRadians());
+    logger.set(field + 3, timestamp);
+    logger.set(field + 4, xStdDev);
+    logger.set(field + 5, yStdDev);
+    logger.set(field + 6, thetaStdDev);
+    logger.commit(Timer.getFPGATimestamp());
+    for (int i = 0; i < 7; i++) {
+      logger.set(field + i, Double.NaN);
+    }
+  }
+
+  private void setLogSample(BinaryLogger logger, DriveSensorSnapshot snapshot) {
+    int field = 0;
+    logger.set(field++, snapshot.getGyroAngle());
+    logger.set(field++, snapshot.getGyroRate());
+    for (int wheel = 0; wheel < snapshot.getWheelCount(); wheel++) {
+      logger.set(field++, snapshot.wheelPositions[wheel]);
+      logger.set(field++, snapshot.wheelVelocities[wheel]);
+      logger.set(field++, snapshot.wheelAngles[wheel]);
+    }
+    logger.set(field++, poseSample[0]);
+    logger.set(field++, poseSample[1]);
+    logger.set(field++, poseSample[2]);
+    for (int output = 0; output < logOutputCount; output++) {
+      logger.set(field++, outputs[output].getCommanded());
+    }
+  }
+
+  /**
+   * Update odometry on a dedicated thread instead of in {@link #periodic()}, so
+   * the pose is sampled faster than the robot loop and isn't slowed by loop
+   * overruns. Sensors must be safe to read from another thread.
+   * 
+   * @param periodSeconds Time between odometry updates, e.g. 0.004 for 250 Hz
+   */
+  public void startOdometryThread(double periodSeconds) {
+    synchronized (odometryLock) {
+      if (odometryNotifier == null) {
+        odometryNotifier = new Notifier(this::sampleOdometry);
+        odometryNotifier.setName(getName() + " Odometry");
+      }
+      odometryNotifier.startPeriodic(periodSeconds);
+    }
+  }
+
+  /** Stop the odometry thread and return to updating in {@link #periodic()}. */
+  public void stopOdometryThread() {
+    Notifier notifier;
+    synchronized (odometryLock) {
+      notifier = odometryNotifier;
+      odometryNotifier = null;
+    }
+
+    if (notifier != null) {
+      notifier.stop();
+      notifier.close();
+    }
+  }
+
+  /**
+   * Whether odometry is being updated on a dedicated thread.
+   * 
+   * @return true if the odometry thread is running
+   */
+  public boolean isOdometryThreadRunning() {
+    return odometryNotifier != null;
+  }
+
+  private void sampleOdometry() {
+    synchronized (odometryLock) {
+      captureSensors(odometrySensors);
+      runOdometry(odometrySensors);
+      logSample(odometrySensors);
+    }
+  }
+
+  private void captureSensors(DriveSensorSnapshot snapshot) {
+    snapshot.captureGyro(Timer.getFPGATimestamp(), isGyroReady() ? gyro : null);
+    readWheels(snapshot);
+  }
+
+  /** Read the wheels into a snapshot. Overridden by drives that steer. */
+  void readWheels(DriveSensorSnapshot snapshot) {
+    readWheels(snapshot.wheelPositions, snapshot.wheelVelocities);
+  }
+
+  private void runOdometry(DriveSensorSnapshot snapshot) {
+    if (!gyroReadyActions.isEmpty() || !isGyroReady()) {
+      return;
+    }
+
+    if (allocationFree) {
+      if (updateOdometryInPlace(snapshot, odometrySample)) {
+        publishOdometry(null, snapshot.getTimestamp());
+      }
+      return;
+    }
+
+    Pose2d pose = updateOdometry(snapshot);
+    if (pose != null) {
+      setOdometrySample(pose);
+      publishOdometry(pose, snapshot.getTimestamp());
+    }
+  }
+
+  private void setOdometrySample(Pose2d odometryPose) {
+    odometrySample[0] = odometryPose.getX();
+    odometrySample[1] = odometryPose.getY();
+    odometrySample[2] = odometryPose.getRotation().getRadians();
+  }
+
+  /**
+   * Record the odometry pose in {@link #odometrySample} and publish the
+   * corrected pose.
+   * 
+   * @param odometryPose The same pose as a {@link Pose2d}, if there is one
+   */
+  private void publishOdometry(Pose2d odometryPose, double timestamp) {
+    odometryHistory.add(timestamp, odometrySample);
+
+    if (corrected) {
+      applyCorrection(odometrySample, poseSample);
+      publishPose(null, timestamp);
+    } else {
+      System.arraycopy(odometrySample, 0, poseSample, 0, 3);
+      publishPose(odometryPose, timestamp);
+    }
+  }
+
+  /**
+   * Publish the pose in {@link #poseSample}.
+   * 
+   * @param pose The same pose as a {@link Pose2d}, if there is one
+   */
+  private void publishPose(Pose2d pose, double timestamp) {
+    poseHistory.add(timestamp, poseSample);
+    robotPositionTimestamp = timestamp;
+    robotPositionVersion = robotPositionVersion + 1;
+
+    if (!allocationFree) {
+      robotPosition = pose != null ? pose : new Pose2d(poseSample[0], poseSample[1], new Rotation2d(poseSample[2]));
+    }
+  }
+
+  /**
+   * Read the wheel encoders into a sensor snapshot.
+   * 
+   * @param positions  Distance traveled by each wheel, in meters
+   * @param velocities Speed of each wheel, in meters per second
+   */
+  protected abstract void readWheels(double[] positions, double[] velocities);
+
+  /**
+   * Update odometry from a sensor snapshot. Called from {@link #periodic()}, or
+   * from the odometry thread while it is running, never both at once.
+   * 
+   * @param sensors Sensor values to update from
+   * @return The new robot position, or null if odometry isn't set up yet
+   */
+  protected abstract Pose2d updateOdometry(DriveSensorSnapshot sensors);
+
+  /**
+   * Update odometry from a sensor snapshot without allocating. Used instead of
+   * {@link #updateOdometry(DriveSensorSnapshot)} when
+   * {@link #isAllocationFree() allocation-free}. The default implementation
+   * calls {@link #updateOdometry(DriveSensorSnapshot)}, so override it to
+   * actually avoid allocating.
+   * 
+   * @param sensors Sensor values to update from
+   * @param pose    Set to the new robot position, {x meters, y meters, heading
+   *                radians}
+   * @return false if odometry isn't set up yet
+   */
+  protected boolean updateOdometryInPlace(DriveSensorSnapshot sensors, double[] pose) {
+    Pose2d updated = updateOdometry(sensors);
+    if (updated == null) {
+      return false;
+    }
+    pose[0] = updated.getX();
+    pose[1] = updated.getY();
+    pose[2] = updated.getRotation().getRadians();
+    return true;
+  }
+
+  /**
+   * Reset odometry to a new position.
+   * 
+   * @param pose {@link Pose2d} of current robot position
+   * @return The new robot position
+   */
+  protected abstract Pose2d resetOdometry(Pose2d pose);
 
   /**
    * Get distance measured by left side encoder.
@@ -66,8 +957,121 @@ public abstract class DriveSubsystemBase extends SubsystemBase implements Invert
    * @param gyro gyroscope
    */
   protected void setGyro(Gyro gyro) {
+    cancelGyroCalibration();
     this.gyro = gyro;
     gyro.calibrate();
+    gyroCalibration = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Set the gyroscope used by drive subsystem, and calibrate it on a
+   * background thread so robot startup doesn't wait for it.
+   * 
+   * <p>
+   * Until calibration finishes, the gyro isn't read, field-oriented driving
+   * is robot-oriented, and odometry doesn't update. Setup that needs the gyro,
+   * such as odometry in {@code setMotors}, runs in {@link #periodic()} once it
+   * is ready.
+   * 
+   * <p>
+   * If calibration fails, the failure is reported to the Driver Station and
+   * the gyro is never ready.
+   * 
+   * @param gyro gyroscope
+   * @return Completes when calibration finishes, or exceptionally if it
+   *         fails. Dependent actions run on the calibration thread.
+   */
+  protected CompletableFuture<Void> setGyroAsync(Gyro gyro) {
+    cancelGyroCalibration();
+    this.gyro = gyro;
+
+    CompletableFuture<Void> calibration = new CompletableFuture<>();
+    Thread thread = new Thread(() -> {
+      try {
+        gyro.calibrate();
+        calibration.complete(null);
+      } catch (Throwable e) {
+        // Odometry never starts without a calibrated gyro, so say why
+        if (calibration.completeExceptionally(e)) {
+          DriverStation.reportError(
+              getName() + ": gyro calibration failed, odometry is disabled: " + e, e.getStackTrace());
+        }
+        if (e instanceof Error) {
+          throw (Error) e;
+        }
+      }
+    }, getName() + " Gyro Calibration");
+    thread.setDaemon(true);
+
+    gyroCalibrationThread = thread;
+    gyroCalibration = calibration;
+    thread.start();
+    return calibration;
+  }
+
+  /**
+   * Whether the gyro is set and finished calibrating.
+   * 
+   * @return true if the gyro is ready
+   */
+  public boolean isGyroReady() {
+    CompletableFuture<Void> calibration = gyroCalibration;
+    return calibration != null && calibration.isDone() && !calibration.isCompletedExceptionally();
+  }
+
+  /**
+   * Stop a calibration started by {@link #setGyroAsync(Gyro)}. The gyro is
+   * then never ready, until a gyro is set again. Gyros whose calibration
+   * can't be interrupted finish calibrating in the background.
+   */
+  public void cancelGyroCalibration() {
+    CompletableFuture<Void> calibration = gyroCalibration;
+    if (calibration != null && !calibration.isDone()) {
+      calibration.cancel(false);
+      gyroCalibrationThread.interrupt();
+    }
+    gyroCalibrationThread = null;
+  }
+
+  /**
+   * Run setup that needs a calibrated gyro, such as creating odometry. Runs
+   * right away if the gyro is ready, otherwise in {@link #periodic()} once it
+   * is. Odometry doesn't update until every waiting action has run.
+   * 
+   * @param action Setup to run
+   */
+  protected void whenGyroReady(Runnable action) {
+    synchronized (odometryLock) {
+      if (runningGyroReadyActions || (gyroReadyActions.isEmpty() && isGyroReady())) {
+        action.run();
+      } else {
+        gyroReadyActions.add(action);
+        hasGyroReadyActions = true;
+      }
+    }
+  }
+
+  private void runGyroReadyActions() {
+    synchronized (odometryLock) {
+      // Actions that would queue more actions, e.g. setRobotPosition, run them
+      // right away instead, so the queue only shrinks
+      runningGyroReadyActions = true;
+      try {
+        while (!gyroReadyActions.isEmpty()) {
+          gyroReadyActions.remove(0).run();
+        }
+      } finally {
+        runningGyroReadyActions = false;
+        hasGyroReadyActions = !gyroReadyActions.isEmpty();
+      }
+    }
+  }
+
+  private void setPendingRobotPosition() {
+    Pose2d pose = pendingRobotPosition;
+    if (pose != null) {
+      setRobotPosition(pose);
+    }
   }
 
   
@@ -1,6 +1,9 @@
 package frc.tigerlib.subsystem.drive;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
 import edu.wpi.first.math.kinematics.MecanumDriveOdometry;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
@@ -35,18 +38,86 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
         void drive(double xSpeed, double ySpeed, double rotation);
     }
 
+    /**
+     * A {@link MecanumDrive} that can also drive without allocating.
+     */
+    private static final class InPlaceMecanumDrive extends MecanumDrive {
+        private final MotorController frontLeftMotor;
+        private final MotorController rearLeftMotor;
+        private final MotorController frontRightMotor;
+        private final MotorController rearRightMotor;
+
+        InPlaceMecanumDrive(MotorController frontLeftMotor, MotorController rearLeftMotor,
+                MotorController frontRightMotor, MotorController rearRightMotor) {
+            super(frontLeftMotor, rearLeftMotor, frontRightMotor, rearRightMotor);
+            this.frontLeftMotor = frontLeftMotor;
+            this.rearLeftMotor = rearLeftMotor;
+            this.frontRightMotor = frontRightMotor;
+            this.rearRightMotor = rearRightMotor;
+        }
+
+        /**
+         * Same as {@link MecanumDrive#driveCartesian(double, double, double, Rotation2d)},
+         * with the inverse kinematics done in place.
+         * 
+         * @param gyroRadians Heading to drive relative to, counterclockwise
+         *                    positive, or 0 for robot-oriented driving
+         */
+        void driveCartesianInPlace(double xSpeed, double ySpeed, double zRotation, double gyroRadians) {
+            xSpeed = MathUtil.clamp(MathUtil.applyDeadband(xSpeed, m_deadband), -1.0, 1.0);
+            ySpeed = MathUtil.clamp(MathUtil.applyDeadband(ySpeed, m_deadband), -1.0, 1.0);
+
+            // Compensate for gyro angle
+            double x = xSpeed;
+            double y = ySpeed;
+            if (gyroRadians != 0.0) {
+                double cos = Math.cos(gyroRadians);
+                double sin = Math.sin(gyroRadians);
+                x = xSpeed * cos + ySpeed * sin;
+                y = -xSpeed * sin + ySpeed * cos;
+            }
+
+            double frontLeft = x + y + zRotation;
+            double frontRight = x - y - zRotation;
+            double rearLeft = x - y + zRotation;
+            double rearRight = x + y - zRotation;
+
+            double maxMagnitude = Math.max(
+                    Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
+                    Math.max(Math.abs(rearLeft), Math.abs(rearRight)));
+            double scale = maxMagnitude > 1.0 ? m_maxOutput / maxMagnitude : m_maxOutput;
+
+            frontLeftMotor.set(frontLeft * scale);
+            frontRightMotor.set(frontRight * scale);
+            rearLeftMotor.set(rearLeft * scale);
+            rearRightMotor.set(rearRight * scale);
+            feed();
+        }
+    }
+
     protected MecanumDrive drive;
     protected MecanumDriveOdometry odometer;
     private boolean isFieldOriented;
     protected DriveMethod driveMethod;
     protected boolean inverted;
 
+    private InPlaceMecanumDrive inPlaceDrive;
+    // Forward kinematics, wheel distances to robot-relative {dx, dy}, row-major
+    private final double[] forwardKinematics = new double[8];
+    private final double[] inPlacePose = new double[3];
+    private final double[] previousPositions = new double[4];
+    private double previousHeading;
+    private double headingOffset;
+
     /** Constructor. */
-    protected MecanumDriveSubsystem() {}
+    protected MecanumDriveSubsystem() {
+        super(4);
+    }
 
     /**
      * Set drive motors and drive kinematics to create {@link #drive}
-     * and {@link #odometer} objects.
+     * and {@link #odometer} objects. Odometry is created once the gyro is
+     * ready.
      * 
      * @param frontLeft  The motor on the front-left corner.
      * @param rearLeft   The motor on the rear-left corner.
@@ -62,13 +133,33 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
         frontRight.setInverted(true);
         rearRight.setInverted(true);
 
-        drive = new MecanumDrive(frontLeft, rearLeft, frontRight, rearRight);
+        inPlaceDrive = new InPlaceMecanumDrive(
+                deduplicate(frontLeft), deduplicate(rearLeft), deduplicate(frontRight), deduplicate(rearRight));
+        drive = inPlaceDrive;
         drive.setDeadband(0.0);
         setStandard();
 
-        resetEncoders();
-        odometer = new MecanumDriveOdometry(kinematics, gyro.getRotation2d(), getWheelPositions());
+        // The kinematics are linear, so driving each wheel alone gives a column
+        // of the forward kinematics matrix
+        for (int wheel = 0; wheel < 4; wheel++) {
+            ChassisSpeeds column = kinematics.toChassisSpeeds(new MecanumDriveWheelSpeeds(
+                    wheel == 0 ? 1.0 : 0.0,
+                    wheel == 1 ? 1.0 : 0.0,
+                    wheel == 2 ? 1.0 : 0.0,
+                    wheel == 3 ? 1.0 : 0.0));
+            forwardKinematics[wheel] = column.vxMetersPerSecond;
+            forwardKinematics[4 + wheel] = column.vyMetersPerSecond;
+        }
+
         isFieldOriented = false;
+
+        whenGyroReady(() -> {
+            resetEncoders();
+            Rotation2d gyroAngle = gyro.getRotation2d();
+            MecanumDriveWheelPositions wheelPositions = getWheelPositions();
+            odometer = new MecanumDriveOdometry(kinematics, gyroAngle, wheelPositions);
+            resetInPlaceOdometry(new Pose2d(), gyroAngle, wheelPositions);
+        });
     }
 
     /**
@@ -108,11 +199,7 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
     @Override
     public void setStandard() {
         driveMethod = (xSpeed, ySpeed, rotation) -> {
-            if (isFieldOriented) {
-                drive.driveCartesian(xSpeed, ySpeed, rotation, gyro.getRotation2d());
-            } else {
-                drive.driveCartesian(xSpeed, ySpeed, rotation);
-            }
+            driveCartesian(xSpeed, ySpeed, rotation);
         };
 
         inverted = false;
@@ -121,16 +208,23 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
     @Override
     public void setInverted() {
         driveMethod = (xSpeed, ySpeed, rotation) -> {
-            if (isFieldOriented) {
-                drive.driveCartesian(-xSpeed, -ySpeed, rotation, gyro.getRotation2d());
-            } else {
-                drive.driveCartesian(-xSpeed, -ySpeed, rotation);
-            }
+            driveCartesian(-xSpeed, -ySpeed, rotation);
         };
 
         inverted = true;
     }
 
+    private void driveCartesian(double xSpeed, double ySpeed, double rotation) {
+        if (isAllocationFree() && inPlaceDrive == drive) {
+            inPlaceDrive.driveCartesianInPlace(
+                    xSpeed, ySpeed, rotation, isFieldOriented ? getSensors().getGyroRadians() : 0.0);
+        } else if (isFieldOriented) {
+            drive.driveCartesian(xSpeed, ySpeed, rotation, getSensors().getGyroRotation());
+        } else {
+            drive.driveCartesian(xSpeed, ySpeed, rotation);
+        }
+    }
+
     @Override
     public boolean isInverted() {
         return inverted;
@@ -148,15 +242,79 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
     protected abstract MecanumDriveWheelPositions getWheelPositions();
 
     @Override
-    public void setRobotPosition(Pose2d pose) {
+    protected Pose2d resetOdometry(Pose2d pose) {
         resetEncoders();
-        odometer.resetPosition(gyro.getRotation2d(), getWheelPositions(), pose);
-        robotPosition = odometer.getPoseMeters();
+        Rotation2d gyroAngle = gyro.getRotation2d();
+        MecanumDriveWheelPositions wheelPositions = getWheelPositions();
+        odometer.resetPosition(gyroAngle, wheelPositions, pose);
+        resetInPlaceOdometry(pose, gyroAngle, wheelPositions);
+        return odometer.getPoseMeters();
+    }
+
+    private void resetInPlaceOdometry(Pose2d pose, Rotation2d gyroAngle, MecanumDriveWheelPositions wheelPositions) {
+        inPlacePose[0] = pose.getX();
+        inPlacePose[1] = pose.getY();
+        inPlacePose[2] = pose.getRotation().getRadians();
+        headingOffset = inPlacePose[2] - gyroAngle.getRadians();
+        previousHeading = inPlacePose[2];
+        previousPositions[0] = wheelPositions.frontLeftMeters;
+        previousPositions[1] = wheelPositions.frontRightMeters;
+        previousPositions[2] = wheelPositions.rearLeftMeters;
+        previousPositions[3] = wheelPositions.rearRightMeters;
     }
 
     @Override
-    public void periodic() {
-        robotPosition = odometer.update(gyro.getRotation2d(), getWheelPositions());
+    protected void readWheels(double[] positions, double[] velocities) {
+        MecanumDriveWheelPositions wheelPositions = getWheelPositions();
+        positions[0] = wheelPositions.frontLeftMeters;
+        positions[1] = wheelPositions.frontRightMeters;
+        positions[2] = wheelPositions.rearLeftMeters;
+        positions[3] = wheelPositions.rearRightMeters;
+
+        MecanumDriveWheelSpeeds wheelSpeeds = getWheelSpeeds();
+        velocities[0] = wheelSpeeds.frontLeftMetersPerSecond;
+        velocities[1] = wheelSpeeds.frontRightMetersPerSecond;
+        velocities[2] = wheelSpeeds.rearLeftMetersPerSecond;
+        velocities[3] = wheelSpeeds.rearRightMetersPerSecond;
+    }
+
+    @Override
+    protected Pose2d updateOdometry(DriveSensorSnapshot sensors) {
+        if (odometer == null) {
+            return null;
+        }
+        return odometer.update(
+                sensors.getGyroRotation(),
+                new MecanumDriveWheelPositions(
+                        sensors.getWheelPosition(0),
+                        sensors.getWheelPosition(1),
+                        sensors.getWheelPosition(2),
+                        sensors.getWheelPosition(3)));
+    }
+
+    @Override
+    protected boolean updateOdometryInPlace(DriveSensorSnapshot sensors, double[] pose) {
+        if (odometer == null) {
+            return false;
+        }
+
+        double dx = 0.0;
+        double dy = 0.0;
+        for (int wheel = 0; wheel < 4; wheel++) {
+            double position = sensors.getWheelPosition(wheel);
+            double delta = position - previousPositions[wheel];
+            dx += forwardKinematics[wheel] * delta;
+            dy += forwardKinematics[4 + wheel] * delta;
+            previousPositions[wheel] = position;
+        }
+
+        double heading = PoseMath.wrapAngle(sensors.getGyroRadians() + headingOffset);
+        PoseMath.exp(inPlacePose, dx, dy, PoseMath.wrapAngle(heading - previousHeading), inPlacePose);
+        inPlacePose[2] = heading;
+        previousHeading = heading;
+
+        System.arraycopy(inPlacePose, 0, pose, 0, 3);
+        return true;
     }
 
     @Override
@@ -168,4 +326,11 @@ public abstract class MecanumDriveSubsystem extends DriveSubsystemBase {
     protected double getRightDistance() {
         return 0;
     }
+
+    @Override
+    protected void closeDrive() {
+        if (drive != null) {
+            drive.close();
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package frc.tigerlib.subsystem.drive;
+
+/**
+ * Pose arithmetic on primitive {x, y, heading} arrays, matching
+ * {@link edu.wpi.first.math.geometry.Pose2d#exp} and
+ * {@link edu.wpi.first.math.geometry.Pose2d#log} without allocating.
+ */
+final class PoseMath {
+    private PoseMath() {}
+
+    /**
+     * Wrap an angle to [-π, π].
+     *
+     * @param radians angle
+     * @return wrapped angle
+     */
+    static double wrapAngle(double radians) {
+        return Math.IEEEremainder(radians, 2.0 * Math.PI);
+    }
+
+    /**
+     * Apply a twist, given in the frame of the starting pose, to a pose.
+     *
+     * @param start  starting pose
+     * @param dx     forward distance
+     * @param dy     sideways distance
+     * @param dtheta change in heading
+     * @param out    resulting pose, may be the same array as start
+     */
+    static void exp(double[] start, double dx, double dy, double dtheta, double[] out) {
+        double sinTheta = Math.sin(dtheta);
+        double cosTheta = Math.cos(dtheta);
+
+        double s;
+        double c;
+        if (Math.abs(dtheta) < 1e-9) {
+            s = 1.0 - dtheta * dtheta / 6.0;
+            c = 0.5 * dtheta;
+        } else {
+            s = sinTheta / dtheta;
+            c = (1.0 - cosTheta) / dtheta;
+        }
+
+        double tx = dx * s - dy * c;
+        double ty = dx * c + dy * s;
+
+        double heading = start[2];
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+
+        out[0] = start[0] + tx * cos - ty * sin;
+        out[1] = start[1] + tx * sin + ty * cos;
+        out[2] = wrapAngle(heading + dtheta);
+    }
+
+    /**
+     * Find the twist that takes one pose to another.
+     *
+     * @param start starting pose
+     * @param end   ending pose
+     * @param out   twist {dx, dy, dtheta} in the frame of the starting pose
+     */
+    static void log(double[] start, double[] end, double[] out) {
+        double cos = Math.cos(start[2]);
+        double sin = Math.sin(start[2]);
+        double fieldDx = end[0] - start[0];
+        double fieldDy = end[1] - start[1];
+
+        // End pose relative to the start pose
+        double relX = fieldDx * cos + fieldDy * sin;
+        double relY = -fieldDx * sin + fieldDy * cos;
+        double dtheta = wrapAngle(end[2] - start[2]);
+
+        double halfDtheta = dtheta / 2.0;
+        double cosMinusOne = Math.cos(dtheta) - 1.0;
+
+        double halfThetaByTanOfHalfDtheta;
+        if (Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - dtheta * dtheta / 12.0;
+        } else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+
+        out[0] = relX * halfThetaByTanOfHalfDtheta + relY * halfDtheta;
+        out[1] = -relX * halfDtheta + relY * halfThetaByTanOfHalfDtheta;
+        out[2] = dtheta;
+    }
+}
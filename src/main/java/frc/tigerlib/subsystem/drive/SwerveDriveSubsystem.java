@@ -0,0 +1,399 @@
+package frc.tigerlib.subsystem.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * A class for easy bootstrapping of swerve drive subsystems.
+ *
+ * <p>
+ * Swerve drives have any number of {@link SwerveModule modules}, each with a
+ * wheel that can both drive and steer. Pass them in with
+ * {@link #setModules(SwerveModule[], Translation2d[], double, double)}.
+ *
+ * <p>
+ * Module encoders are read together once per cycle, and the module states are
+ * worked out in preallocated arrays. Repeated requests for the same speeds
+ * reuse the last module states, and a module is only steered when its angle
+ * changes by more than {@link #ANGLE_TOLERANCE}. Odometry can run on the
+ * odometry thread like the other drives.
+ *
+ * <p>
+ * Drive base diagram:
+ *
+ * <pre>
+ * [ ]_____[ ]
+ *  |       |
+ *  |       |
+ * [ ]_____[ ]
+ * </pre>
+ */
+public abstract class SwerveDriveSubsystem extends DriveSubsystemBase {
+    @FunctionalInterface
+    protected interface DriveMethod {
+        void drive(double xSpeed, double ySpeed, double rotation);
+    }
+
+    /** Smallest change in a module's angle, in radians, worth steering for. */
+    public static final double ANGLE_TOLERANCE = 0.01;
+
+    /** Wheel speed, in meters per second, below which a module isn't steered. */
+    public static final double SPEED_TOLERANCE = 1e-3;
+
+    protected SwerveModule[] modules;
+    protected DriveMethod driveMethod;
+    protected boolean inverted;
+    private boolean isFieldOriented;
+    private double maxSpeed;
+    private double maxAngularSpeed;
+
+    private final int moduleCount;
+    private final double[] moduleX;
+    private final double[] moduleY;
+    // First two rows of the forward kinematics pseudo-inverse, wheel
+    // displacements {dx0, dy0, dx1, dy1, ...} to robot-relative {dx, dy}
+    private final double[] forwardKinematics;
+
+    // Module states for the last requested chassis speeds
+    private double requestedVx = Double.NaN;
+    private double requestedVy = Double.NaN;
+    private double requestedOmega = Double.NaN;
+    private final double[] targetSpeeds;
+    private final double[] targetAngles;
+    private final double[] commandedAngles;
+
+    private final double[] odometryPose = new double[3];
+    private final double[] previousDistances;
+    // False until odometry has seen the modules' distances once
+    private boolean distancesKnown;
+    private final double[] scratchAngles;
+    private double previousHeading;
+    private double headingOffset;
+
+    /**
+     * Constructor.
+     * 
+     * @param moduleCount Number of swerve modules
+     */
+    protected SwerveDriveSubsystem(int moduleCount) {
+        super(moduleCount);
+        this.moduleCount = moduleCount;
+        moduleX = new double[moduleCount];
+        moduleY = new double[moduleCount];
+        forwardKinematics = new double[4 * moduleCount];
+        targetSpeeds = new double[moduleCount];
+        targetAngles = new double[moduleCount];
+        commandedAngles = new double[moduleCount];
+        previousDistances = new double[moduleCount];
+        scratchAngles = new double[moduleCount];
+    }
+
+    /**
+     * Set the swerve modules and where they are on the robot. Odometry starts
+     * once the gyro is ready.
+     * 
+     * @param modules         The modules, in the same order as their locations
+     * @param locations       Location of each module relative to the center of
+     *                        the robot, x forward and y left, in meters
+     * @param maxSpeed        Top wheel speed, in meters per second, reached at a
+     *                        drive input of 1
+     * @param maxAngularSpeed Top turn rate, in radians per second, reached at a
+     *                        rotation input of 1
+     */
+    protected void setModules(SwerveModule[] modules, Translation2d[] locations, double maxSpeed,
+            double maxAngularSpeed) {
+        if (modules.length != moduleCount || locations.length != moduleCount) {
+            throw new IllegalArgumentException("Expected " + moduleCount + " modules and locations");
+        }
+
+        this.modules = modules.clone();
+        distancesKnown = false;
+        this.maxSpeed = maxSpeed;
+        this.maxAngularSpeed = maxAngularSpeed;
+
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumSquares = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            moduleX[i] = locations[i].getX();
+            moduleY[i] = locations[i].getY();
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+            sumSquares += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+            commandedAngles[i] = modules[i].getAngle();
+            targetAngles[i] = commandedAngles[i];
+        }
+
+        // The inverse kinematics matrix has rows [1, 0, -y] and [0, 1, x] for
+        // each module. Its pseudo-inverse is (M^T M)^-1 M^T, and M^T M is
+        // symmetric:
+        // | n      0      -sumY       |
+        // | 0      n       sumX       |
+        // | -sumY  sumX    sumSquares |
+        double n = moduleCount;
+        double a00 = n * sumSquares - sumX * sumX;
+        double a01 = -sumX * sumY;
+        double a02 = n * sumY;
+        double a11 = n * sumSquares - sumY * sumY;
+        double a12 = -n * sumX;
+        double determinant = n * a00 - sumY * a02;
+        if (Math.abs(determinant) < 1e-12) {
+            throw new IllegalArgumentException("Module locations must not all be the same");
+        }
+        for (int i = 0; i < moduleCount; i++) {
+            forwardKinematics[2 * i] = (a00 - a02 * moduleY[i]) / determinant;
+            forwardKinematics[2 * i + 1] = (a01 + a02 * moduleX[i]) / determinant;
+            forwardKinematics[2 * moduleCount + 2 * i] = (a01 - a12 * moduleY[i]) / determinant;
+            forwardKinematics[2 * moduleCount + 2 * i + 1] = (a11 + a12 * moduleX[i]) / determinant;
+        }
+
+        setStandard();
+        isFieldOriented = false;
+        // Keep any position set before the modules were
+        whenGyroReady(() -> resetOdometry(
+                new Pose2d(odometryPose[0], odometryPose[1], new Rotation2d(odometryPose[2]))));
+    }
+
+    /**
+     * Drive method for swerve platform.
+     * 
+     * @param xSpeed   The robot's speed along the X axis [-1.0..1.0]. Forward is
+     *                 positive.
+     * @param ySpeed   The robot's speed along the Y axis [-1.0..1.0]. Left is
+     *                 positive.
+     * @param rotation The robot's rotation rate around the Z axis [-1.0..1.0].
+     *                 Counterclockwise is positive.
+     * 
+     * @see #setFieldOriented(boolean)
+     */
+    public void drive(double xSpeed, double ySpeed, double rotation) {
+        driveMethod.drive(xSpeed, ySpeed, rotation);
+    }
+
+    /**
+     * Drive at robot-relative speeds, such as from a trajectory follower.
+     * Ignores field orientation and inversion.
+     * 
+     * @param vxMetersPerSecond     Forward speed
+     * @param vyMetersPerSecond     Sideways speed, left positive
+     * @param omegaRadiansPerSecond Turn rate, counterclockwise positive
+     */
+    public void setChassisSpeeds(double vxMetersPerSecond, double vyMetersPerSecond, double omegaRadiansPerSecond) {
+        if (modules == null) {
+            return;
+        }
+
+        if (vxMetersPerSecond != requestedVx || vyMetersPerSecond != requestedVy
+                || omegaRadiansPerSecond != requestedOmega) {
+            computeModuleStates(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
+        }
+
+        DriveSensorSnapshot sensors = getSensors();
+        for (int i = 0; i < moduleCount; i++) {
+            double speed = targetSpeeds[i];
+            double angle = targetAngles[i];
+
+            if (Math.abs(speed) < SPEED_TOLERANCE) {
+                // Hold the wheel where it is rather than steering to 0
+                speed = 0.0;
+                angle = commandedAngles[i];
+            } else if (Math.abs(PoseMath.wrapAngle(angle - sensors.getWheelAngle(i))) > Math.PI / 2.0) {
+                // Drive backwards instead of turning more than 90 degrees
+                speed = -speed;
+                angle = PoseMath.wrapAngle(angle + Math.PI);
+            }
+
+            if (Math.abs(PoseMath.wrapAngle(angle - commandedAngles[i])) > ANGLE_TOLERANCE) {
+                modules[i].setAngle(angle);
+                commandedAngles[i] = angle;
+            }
+            modules[i].setSpeed(speed);
+        }
+    }
+
+    private void computeModuleStates(double vx, double vy, double omega) {
+        requestedVx = vx;
+        requestedVy = vy;
+        requestedOmega = omega;
+
+        double fastest = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = vx - omega * moduleY[i];
+            double moduleVy = vy + omega * moduleX[i];
+            double speed = Math.hypot(moduleVx, moduleVy);
+            targetSpeeds[i] = speed;
+            if (speed >= SPEED_TOLERANCE) {
+                targetAngles[i] = Math.atan2(moduleVy, moduleVx);
+            }
+            fastest = Math.max(fastest, speed);
+        }
+
+        // Slow every module down together if any would go too fast
+        if (fastest > maxSpeed) {
+            double scale = maxSpeed / fastest;
+            for (int i = 0; i < moduleCount; i++) {
+                targetSpeeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * When set to true, the robot is "directionless" and movement is
+     * relative to the field rather than the robot using input from the
+     * gyroscope.
+     * 
+     * <p>
+     * Defaults to false.
+     * 
+     * @param isFieldOriented Set field-oriented control.
+     */
+    protected void setFieldOriented(boolean isFieldOriented) {
+        this.isFieldOriented = isFieldOriented;
+    }
+
+    @Override
+    public void setStandard() {
+        driveMethod = (xSpeed, ySpeed, rotation) -> driveScaled(xSpeed, ySpeed, rotation);
+
+        inverted = false;
+    }
+
+    @Override
+    public void setInverted() {
+        driveMethod = (xSpeed, ySpeed, rotation) -> driveScaled(-xSpeed, -ySpeed, rotation);
+
+        inverted = true;
+    }
+
+    @Override
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    private void driveScaled(double xSpeed, double ySpeed, double rotation) {
+        double vx = clamp(xSpeed) * maxSpeed;
+        double vy = clamp(ySpeed) * maxSpeed;
+        double omega = clamp(rotation) * maxAngularSpeed;
+
+        if (isFieldOriented) {
+            double heading = getSensors().getGyroRadians();
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotVx = vx * cos + vy * sin;
+            vy = -vx * sin + vy * cos;
+            vx = robotVx;
+        }
+
+        setChassisSpeeds(vx, vy, omega);
+    }
+
+    private static double clamp(double input) {
+        return Math.max(-1.0, Math.min(1.0, input));
+    }
+
+    /**
+     * Read every module's encoders into the sensor snapshot. Override to read
+     * them in one batch, e.g. with a single CAN refresh, and call
+     * {@code super.readModules} or fill in the arrays directly.
+     * 
+     * @param distances  Distance driven by each wheel, in meters
+     * @param velocities Speed of each wheel, in meters per second
+     * @param angles     Direction of each wheel, in radians
+     */
+    protected void readModules(double[] distances, double[] velocities, double[] angles) {
+        for (int i = 0; i < moduleCount; i++) {
+            distances[i] = modules[i].getDistance();
+            velocities[i] = modules[i].getVelocity();
+            angles[i] = modules[i].getAngle();
+        }
+    }
+
+    @Override
+    void readWheels(DriveSensorSnapshot snapshot) {
+        if (modules != null) {
+            readModules(snapshot.wheelPositions, snapshot.wheelVelocities, snapshot.wheelAngles);
+        }
+    }
+
+    @Override
+    protected void readWheels(double[] positions, double[] velocities) {
+        if (modules != null) {
+            readModules(positions, velocities, scratchAngles);
+        }
+    }
+
+    /**
+     * Odometry keeps tracking each module's distance from the sensor snapshot
+     * across a reset, so resetting reads nothing from the modules, and works
+     * before they are set.
+     */
+    @Override
+    protected Pose2d resetOdometry(Pose2d pose) {
+        odometryPose[0] = pose.getX();
+        odometryPose[1] = pose.getY();
+        odometryPose[2] = pose.getRotation().getRadians();
+        headingOffset = odometryPose[2] - gyro.getRotation2d().getRadians();
+        previousHeading = odometryPose[2];
+        return pose;
+    }
+
+    @Override
+    protected Pose2d updateOdometry(DriveSensorSnapshot sensors) {
+        if (!updateOdometryInPlace(sensors, odometryPose)) {
+            return null;
+        }
+        return new Pose2d(odometryPose[0], odometryPose[1], new Rotation2d(odometryPose[2]));
+    }
+
+    @Override
+    protected boolean updateOdometryInPlace(DriveSensorSnapshot sensors, double[] pose) {
+        if (modules == null) {
+            return false;
+        }
+
+        double dx = 0.0;
+        double dy = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            double distance = sensors.getWheelPosition(i);
+            // The first distances seen are only a starting point
+            double delta = distancesKnown ? distance - previousDistances[i] : 0.0;
+            previousDistances[i] = distance;
+
+            double angle = sensors.getWheelAngle(i);
+            double wheelDx = delta * Math.cos(angle);
+            double wheelDy = delta * Math.sin(angle);
+            dx += forwardKinematics[2 * i] * wheelDx + forwardKinematics[2 * i + 1] * wheelDy;
+            dy += forwardKinematics[2 * moduleCount + 2 * i] * wheelDx
+                    + forwardKinematics[2 * moduleCount + 2 * i + 1] * wheelDy;
+        }
+        distancesKnown = true;
+
+        double heading = PoseMath.wrapAngle(sensors.getGyroRadians() + headingOffset);
+        PoseMath.exp(odometryPose, dx, dy, PoseMath.wrapAngle(heading - previousHeading), odometryPose);
+        odometryPose[2] = heading;
+        previousHeading = heading;
+
+        if (pose != odometryPose) {
+            System.arraycopy(odometryPose, 0, pose, 0, 3);
+        }
+        return true;
+    }
+
+    /**
+     * Swerve odometry tracks the change in each module's distance, so the
+     * encoders never need to be reset.
+     */
+    @Override
+    protected void resetEncoders() {}
+
+    @Override
+    protected double getLeftDistance() {
+        return 0;
+    }
+
+    @Override
+    protected double getRightDistance() {
+        return 0;
+    }
+}
@@ -0,0 +1,44 @@
+package frc.tigerlib.subsystem.drive;
+
+/**
+ * One module of a {@link SwerveDriveSubsystem}: a drive motor and a steering
+ * motor with their encoders. Everything is in primitives, so modules can be
+ * read and commanded without allocating.
+ */
+public interface SwerveModule {
+    /**
+     * Get the distance driven by the wheel.
+     * 
+     * @return Distance in meters
+     */
+    double getDistance();
+
+    /**
+     * Get the speed of the wheel.
+     * 
+     * @return Speed in meters per second
+     */
+    double getVelocity();
+
+    /**
+     * Get the direction the wheel is steered.
+     * 
+     * @return Angle in radians, counterclockwise positive, 0 facing forward
+     */
+    double getAngle();
+
+    /**
+     * Set the speed of the wheel.
+     * 
+     * @param metersPerSecond Speed in meters per second
+     */
+    void setSpeed(double metersPerSecond);
+
+    /**
+     * Steer the wheel. Only called when the angle changes.
+     * 
+     * @param radians Angle in radians, counterclockwise positive, 0 facing
+     *                forward, on [-π, π]
+     */
+    void setAngle(double radians);
+}
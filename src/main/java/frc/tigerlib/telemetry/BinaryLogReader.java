@@ -0,0 +1,225 @@
+package frc.tigerlib.telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads files written by {@link BinaryLogger}, one record at a time. Meant for
+ * the desktop, so unlike the logger it isn't tuned for the robot loop.
+ *
+ * <p>
+ * Run {@link #main(String[])} to convert a log to CSV:
+ * {@code java -cp tigerlib.jar frc.tigerlib.telemetry.BinaryLogReader drive.tlog > drive.csv}
+ */
+public final class BinaryLogReader implements AutoCloseable {
+    private final Path path;
+    private final DataInputStream input;
+    private final String[] names_;
+    private final double[] resolutions_;
+    private final long[] previous_;
+    private long previousTimestamp_;
+
+    private double timestamp = Double.NaN;
+    private long droppedBefore;
+    private long droppedTotal;
+
+    /**
+     * Open a log and read its header.
+     *
+     * @param path File to read
+     * @throws IOException if the file cannot be read or is not a log
+     */
+    public BinaryLogReader(Path path) throws IOException {
+        this.path = path;
+        input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        try {
+            if (input.readInt() != BinaryLogger.MAGIC) {
+                throw new IOException(path + ": not a binary log file");
+            }
+            int version = input.readInt();
+            if (version != BinaryLogger.VERSION) {
+                throw new IOException(path + ": unsupported version " + version);
+            }
+            int count = input.readInt();
+            if (count < 0) {
+                throw new IOException(path + ": negative field count " + count);
+            }
+
+            names_ = new String[count];
+            resolutions_ = new double[count];
+            for (int field = 0; field < count; field++) {
+                byte[] name = new byte[input.readUnsignedShort()];
+                input.readFully(name);
+                names_[field] = new String(name, StandardCharsets.UTF_8);
+                resolutions_[field] = input.readDouble();
+            }
+            previous_ = new long[count];
+        } catch (EOFException e) {
+            input.close();
+            throw new IOException(path + ": file too short for header", e);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of fields in each record
+     */
+    public int getFieldCount() {
+        return names_.length;
+    }
+
+    /**
+     * @param field Index of the field
+     * @return The name the field was added with
+     */
+    public String getFieldName(int field) {
+        return names_[field];
+    }
+
+    /**
+     * @param field Index of the field
+     * @return The resolution the field was recorded at
+     */
+    public double getResolution(int field) {
+        return resolutions_[field];
+    }
+
+    /**
+     * Find a field by name.
+     *
+     * @param name Name the field was added with
+     * @return Index of the field, or -1 if there isn't one
+     */
+    public int indexOf(String name) {
+        for (int field = 0; field < names_.length; field++) {
+            if (names_[field].equals(name)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @param values Filled with the value of each field
+     * @return false at the end of the log
+     * @throws IOException if the file cannot be read or ends mid-record
+     */
+    public boolean next(double[] values) throws IOException {
+        if (values.length < names_.length) {
+            throw new IllegalArgumentException("Output must hold " + names_.length + " values");
+        }
+
+        int first = input.read();
+        if (first < 0) {
+            return false;
+        }
+
+        try {
+            droppedBefore = readVarint(first);
+            droppedTotal += droppedBefore;
+
+            previousTimestamp_ += BinaryLogger.unzigzag(readVarint(input.readUnsignedByte()));
+            timestamp = previousTimestamp_ * BinaryLogger.TIMESTAMP_RESOLUTION;
+
+            for (int field = 0; field < names_.length; field++) {
+                previous_[field] += BinaryLogger.unzigzag(readVarint(input.readUnsignedByte()));
+                values[field] = previous_[field] == Long.MIN_VALUE
+                        ? Double.NaN
+                        : previous_[field] * resolutions_[field];
+            }
+        } catch (EOFException e) {
+            throw new IOException(path + ": truncated record", e);
+        }
+        return true;
+    }
+
+    /**
+     * @return The timestamp of the last record read, in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The number of records dropped just before the last record read
+     */
+    public long getDroppedBefore() {
+        return droppedBefore;
+    }
+
+    /**
+     * @return The number of records dropped before all the records read so far
+     */
+    public long getDroppedTotal() {
+        return droppedTotal;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private long readVarint(int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 63) {
+                throw new IOException(path + ": malformed varint");
+            }
+            b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    /**
+     * Convert a log to CSV on standard output. The columns are the timestamp,
+     * the number of records dropped before each row, then every field.
+     *
+     * @param args Path of the log file
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: BinaryLogReader <log file>");
+            System.exit(2);
+        }
+
+        PrintStream out = System.out;
+        try (BinaryLogReader reader = new BinaryLogReader(Paths.get(args[0]))) {
+            StringBuilder line = new StringBuilder("timestamp,dropped");
+            for (int field = 0; field < reader.getFieldCount(); field++) {
+                line.append(',').append(reader.getFieldName(field));
+            }
+            out.println(line);
+
+            double[] values = new double[reader.getFieldCount()];
+            while (reader.next(values)) {
+                line.setLength(0);
+                line.append(reader.getTimestamp()).append(',').append(reader.getDroppedBefore());
+                for (double value : values) {
+                    line.append(',').append(value);
+                }
+                out.println(line);
+            }
+            out.flush();
+
+            if (reader.getDroppedTotal() > 0) {
+                System.err.println(reader.getDroppedTotal() + " records were dropped");
+            }
+        }
+    }
+}
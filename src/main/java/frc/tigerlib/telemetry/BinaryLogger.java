@@ -0,0 +1,367 @@
+package frc.tigerlib.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs timestamped records of numbers to a compact binary file from a
+ * background thread, so the robot loop only writes primitives.
+ *
+ * <p>
+ * Each value is registered once as a field with a resolution, before the log
+ * is {@link #start() started}. Every cycle, the producer {@link #set(int,
+ * double) sets} fields and {@link #commit(double) commits} them as a record
+ * into a preallocated ring. A background thread encodes the ring into a direct
+ * buffer and writes it through a {@link FileChannel}. If the disk falls behind
+ * and the ring fills, records are dropped and counted instead of waiting, so
+ * committing never blocks and never allocates. Fields must be set and
+ * committed from one thread at a time.
+ *
+ * <p>
+ * The file starts with the 4 byte magic {@code TLOG}, a 4 byte version (1)
+ * and a 4 byte field count, then each field's name as a 2 byte length and
+ * UTF-8 bytes, followed by its resolution as an 8 byte double. Every header
+ * field is big-endian. Records follow, each as varints: the number of records
+ * dropped just before it, then the change in timestamp in microseconds, then
+ * the change in each field counted in its resolution. Changes are zigzag
+ * encoded, so a value that holds still takes 1 byte. NaN is stored as
+ * {@link Long#MIN_VALUE} steps. {@link BinaryLogReader} decodes the file.
+ */
+public final class BinaryLogger implements AutoCloseable {
+    static final int MAGIC = 0x544C4F47; // "TLOG"
+    static final int VERSION = 1;
+    static final double TIMESTAMP_RESOLUTION = 1e-6;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final long DEFAULT_PERIOD_NANOS = 20_000_000L;
+
+    private final Path path;
+    private final int capacity;
+    private final Object writeLock = new Object();
+
+    private int size_;
+    private String[] names_ = new String[0];
+    private double[] resolutions_ = new double[0];
+
+    // Producer side
+    private double[] staging_ = new double[0];
+    private long droppedSinceCommit_;
+    private volatile long dropped_;
+    // Counted by the writer, since only the producer writes dropped_
+    private volatile long droppedAfterError_;
+
+    // Ring of committed records, one row of size_ values each
+    private double[] ring_;
+    private double[] timestamps_;
+    private long[] gaps_;
+    private volatile long head_;
+    private volatile long tail_;
+
+    // Writer side
+    private long[] previous_;
+    private long previousTimestamp_;
+    private ByteBuffer buffer_;
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile IOException error;
+    private long periodNanos = DEFAULT_PERIOD_NANOS;
+    private volatile long bytesWritten;
+
+    /**
+     * @param path     File to create or replace
+     * @param capacity Number of records the ring holds while waiting to be
+     *                 written, e.g. 1 second of records
+     */
+    public BinaryLogger(Path path, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.path = path;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Register a field. Fields can only be added before the log is started.
+     *
+     * @param name       Name of the field, e.g. "x (m)"
+     * @param resolution Smallest change worth recording, e.g. 1e-4 for a tenth
+     *                   of a millimeter
+     * @return Field index to pass to {@link #set(int, double)}
+     */
+    public int addDouble(String name, double resolution) {
+        if (!(resolution > 0.0)) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        synchronized (writeLock) {
+            if (channel != null) {
+                throw new IllegalStateException("Cannot add fields after the log is started");
+            }
+            int field = size_++;
+            names_ = Arrays.copyOf(names_, size_);
+            resolutions_ = Arrays.copyOf(resolutions_, size_);
+            staging_ = Arrays.copyOf(staging_, size_);
+            names_[field] = name;
+            resolutions_[field] = resolution;
+            staging_[field] = Double.NaN;
+            return field;
+        }
+    }
+
+    /**
+     * Set a field's value for the next commit. Values are kept between commits.
+     *
+     * @param field Index returned when the field was added
+     * @param value New value
+     */
+    public void set(int field, double value) {
+        staging_[field] = value;
+    }
+
+    /**
+     * Copy the values set since the last commit into the ring as one record. If
+     * the ring is full, or the log isn't running, the record is dropped.
+     *
+     * @param timestamp Time of the record in seconds, e.g. from
+     *                  {@link edu.wpi.first.wpilibj.Timer#getFPGATimestamp()}
+     */
+    public void commit(double timestamp) {
+        long head = head_;
+        if (!running || head - tail_ >= capacity) {
+            droppedSinceCommit_++;
+            dropped_ = dropped_ + 1;
+            return;
+        }
+
+        int slot = (int) (head % capacity);
+        System.arraycopy(staging_, 0, ring_, slot * size_, size_);
+        timestamps_[slot] = timestamp;
+        gaps_[slot] = droppedSinceCommit_;
+        droppedSinceCommit_ = 0;
+
+        head_ = head + 1;
+    }
+
+    /**
+     * Get the number of records dropped because the ring was full, the log
+     * wasn't running or the writer had stopped on an error.
+     *
+     * @return Number of dropped records
+     */
+    public long getDroppedCount() {
+        return dropped_ + droppedAfterError_;
+    }
+
+    /**
+     * Get the error that stopped the writer, if there was one. Records
+     * committed after an error are dropped.
+     *
+     * @return The error, or null
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    /**
+     * Get the number of bytes written to the file so far.
+     *
+     * @return File size in bytes
+     */
+    public long getBytesWritten() {
+        // Not under the lock, which the writer holds while waiting on the disk
+        return bytesWritten;
+    }
+
+    /**
+     * Set how often the background thread writes. Defaults to 0.02 seconds.
+     *
+     * @param periodSeconds Time between writes
+     */
+    public void setPeriod(double periodSeconds) {
+        periodNanos = (long) (periodSeconds * 1e9);
+    }
+
+    /**
+     * Create the file, write the header and start writing on the background
+     * thread.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    public void start() throws IOException {
+        synchronized (writeLock) {
+            if (channel != null) {
+                return;
+            }
+
+            ring_ = new double[capacity * size_];
+            timestamps_ = new double[capacity];
+            gaps_ = new long[capacity];
+            previous_ = new long[size_];
+            buffer_ = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN);
+
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader();
+
+            running = true;
+            writer = new Thread(this::run, "BinaryLogger " + path.getFileName());
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stop the background thread, write any records left in the ring and close
+     * the file.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (writeLock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writer;
+        }
+
+        // Unpark rather than interrupt, which would close the channel mid-write
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        synchronized (writeLock) {
+            drain();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            synchronized (writeLock) {
+                drain();
+            }
+            LockSupport.parkNanos(periodNanos);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer buffer = buffer_;
+        buffer.clear();
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size_);
+        for (int field = 0; field < size_; field++) {
+            byte[] name = names_[field].getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length).put(name).putDouble(resolutions_[field]);
+        }
+        flush();
+    }
+
+    /** Encode every committed record and write them. */
+    private void drain() {
+        if (error != null) {
+            discard();
+            return;
+        }
+
+        int recordBytes = MAX_VARINT_BYTES * (size_ + 2);
+        long unflushed = 0;
+        try {
+            long head = head_;
+            for (long tail = tail_; tail < head; tail++) {
+                if (buffer_.remaining() < recordBytes) {
+                    flush();
+                    unflushed = 0;
+                }
+                encode((int) (tail % capacity));
+                unflushed++;
+                tail_ = tail + 1;
+            }
+            flush();
+        } catch (IOException e) {
+            error = e;
+            // Records encoded but not written are lost along with the rest
+            droppedAfterError_ += unflushed;
+            buffer_.clear();
+            discard();
+        }
+    }
+
+    /** Drop every committed record, counting them, so the ring keeps moving. */
+    private void discard() {
+        long head = head_;
+        long discarded = head - tail_;
+        if (discarded > 0) {
+            tail_ = head;
+            droppedAfterError_ += discarded;
+        }
+    }
+
+    private void encode(int slot) {
+        ByteBuffer buffer = buffer_;
+        putVarint(buffer, gaps_[slot]);
+
+        long timestamp = quantize(timestamps_[slot], 1.0 / TIMESTAMP_RESOLUTION);
+        putVarint(buffer, zigzag(timestamp - previousTimestamp_));
+        previousTimestamp_ = timestamp;
+
+        int offset = slot * size_;
+        for (int field = 0; field < size_; field++) {
+            long value = quantize(ring_[offset + field], 1.0 / resolutions_[field]);
+            putVarint(buffer, zigzag(value - previous_[field]));
+            previous_[field] = value;
+        }
+    }
+
+    private void flush() throws IOException {
+        ByteBuffer buffer = buffer_;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static long quantize(double value, double scale) {
+        return Double.isNaN(value) ? Long.MIN_VALUE : Math.round(value * scale);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,109 @@
+package frc.tigerlib.telemetry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative {@code long} values with logarithmic buckets,
+ * eight per power of two, so percentiles are accurate to within about 6%. All
+ * storage is allocated by the constructor.
+ *
+ * <p>
+ * Only one thread may call {@link #record(long)} and {@link #reset()}. Any
+ * number of threads may read without locking, and see each bucket's count as
+ * of some recent write.
+ */
+final class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts_ = new AtomicLongArray(BUCKETS);
+    private volatile long count_;
+    private volatile long max_;
+
+    /**
+     * Add a value.
+     *
+     * @param value Value to add, clamped to 0 if negative
+     */
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        int bucket = bucketOf(value);
+        counts_.lazySet(bucket, counts_.get(bucket) + 1);
+        count_ = count_ + 1;
+        if (value > max_) {
+            max_ = value;
+        }
+    }
+
+    /** Remove all values. */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts_.lazySet(i, 0);
+        }
+        count_ = 0;
+        max_ = 0;
+    }
+
+    /**
+     * @return The number of values recorded
+     */
+    long count() {
+        return count_;
+    }
+
+    /**
+     * @return The largest value recorded, or 0 if empty
+     */
+    long max() {
+        return max_;
+    }
+
+    /**
+     * Find the value below which a fraction of the recorded values fall.
+     *
+     * @param quantile Fraction on [0, 1], e.g. 0.99 for the 99th percentile
+     * @return The middle of the bucket holding that value, at most
+     *         {@link #max()}, or 0 if empty
+     */
+    long percentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts_.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts_.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketMiddle(i), max_);
+            }
+        }
+        return max_;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long bucketMiddle(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
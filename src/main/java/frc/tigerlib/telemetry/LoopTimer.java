@@ -0,0 +1,147 @@
+package frc.tigerlib.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * Times one hook of the robot loop, such as a subsystem's {@code periodic()}
+ * or a command's {@code execute()}. Get one from
+ * {@link LoopTiming#timer(String)}.
+ *
+ * <pre>
+ * <code>
+ * long start = timer.start();
+ * // ...
+ * timer.stop(start);
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * Timing a call costs two {@link System#nanoTime()} reads and a few array
+ * writes, and never allocates. Stats cover the time since they were last
+ * published, and the overrun count covers the whole run.
+ *
+ * <p>
+ * Only the robot loop thread may time calls. Stats can be read from any
+ * thread.
+ */
+public final class LoopTimer {
+    private final String name;
+    private final LogHistogram histogram = new LogHistogram();
+    private volatile long overruns;
+    private long cycleNanos;
+
+    private final DoublePublisher p50Publisher;
+    private final DoublePublisher p99Publisher;
+    private final DoublePublisher maxPublisher;
+    private final IntegerPublisher countPublisher;
+    private final IntegerPublisher overrunPublisher;
+
+    LoopTimer(String name, NetworkTable table) {
+        this.name = name;
+
+        NetworkTable timerTable = table.getSubTable(name);
+        p50Publisher = timerTable.getDoubleTopic("p50 (ms)").publish();
+        p99Publisher = timerTable.getDoubleTopic("p99 (ms)").publish();
+        maxPublisher = timerTable.getDoubleTopic("max (ms)").publish();
+        countPublisher = timerTable.getIntegerTopic("count").publish();
+        overrunPublisher = timerTable.getIntegerTopic("overruns").publish();
+    }
+
+    /**
+     * @return The name of the timed hook
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Start timing a call.
+     *
+     * @return Start time to pass to {@link #stop(long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Finish timing a call.
+     *
+     * @param startNanos Value returned by {@link #start()}
+     */
+    public void stop(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Record the duration of a call timed some other way.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        histogram.record(nanos);
+        cycleNanos += nanos;
+    }
+
+    /**
+     * Get a percentile of the call durations since stats were last published.
+     *
+     * @param quantile Fraction on [0, 1], e.g. 0.99 for the 99th percentile
+     * @return Duration in milliseconds
+     */
+    public double getPercentile(double quantile) {
+        return histogram.percentile(quantile) / 1e6;
+    }
+
+    /**
+     * @return The longest call since stats were last published, in
+     *         milliseconds
+     */
+    public double getMax() {
+        return histogram.max() / 1e6;
+    }
+
+    /**
+     * @return The number of calls since stats were last published
+     */
+    public long getCount() {
+        return histogram.count();
+    }
+
+    /**
+     * @return The number of loop overruns this hook was blamed for, i.e. it
+     *         took the most time in the overrunning cycle
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    long getCycleNanos() {
+        return cycleNanos;
+    }
+
+    void resetCycle() {
+        cycleNanos = 0;
+    }
+
+    /** Clear stats and the overrun count. */
+    void reset() {
+        histogram.reset();
+        cycleNanos = 0;
+        overruns = 0;
+    }
+
+    void blameOverrun() {
+        overruns = overruns + 1;
+    }
+
+    void publish() {
+        p50Publisher.set(getPercentile(0.5));
+        p99Publisher.set(getPercentile(0.99));
+        maxPublisher.set(getMax());
+        countPublisher.set(getCount());
+        overrunPublisher.set(overruns);
+        histogram.reset();
+    }
+}
@@ -0,0 +1,148 @@
+package frc.tigerlib.telemetry;
+
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.Arrays;
+
+/**
+ * Loop timing for subsystems and commands, with overrun attribution.
+ *
+ * <p>
+ * Each hook gets a {@link LoopTimer} from {@link #timer(String)}. Once per
+ * scheduler cycle, when the {@link CommandScheduler} polls its default button
+ * loop, the time since the previous poll is checked. If it is longer than the
+ * overrun threshold, the loop overran, and the hook that took the most time
+ * since the previous poll is blamed, as long as it took at least a tenth of
+ * the threshold. Every {@link #setPublishPeriod(int)
+ * publish period}, each timer's p50, p99 and max are published to
+ * NetworkTables under {@code TigerLib/LoopTiming}, and its stats restart.
+ *
+ * <p>
+ * The tigerlib drive subsystems and commands time themselves. Timers may be
+ * registered from any thread, but must only time calls from the robot loop
+ * thread.
+ */
+public final class LoopTiming {
+    private static NetworkTable table;
+    private static IntegerPublisher overrunPublisher;
+    private static StringPublisher lastOverrunPublisher;
+    // Copied on write, so poll() can iterate without the lock
+    private static volatile LoopTimer[] timers = new LoopTimer[0];
+
+    private static volatile long overrunThresholdNanos = 21_000_000L;
+    private static volatile int publishPeriod = 50;
+    private static int cyclesSincePublish;
+    private static long lastPollNanos;
+    private static volatile long overruns;
+
+    private LoopTiming() {}
+
+    /**
+     * Get the timer for a hook, creating it the first time. Hooks with the same
+     * name share a timer.
+     *
+     * @param name Name of the hook, e.g. "DriveSubsystem.periodic()"
+     * @return Timer for the hook
+     */
+    public static synchronized LoopTimer timer(String name) {
+        if (table == null) {
+            table = NetworkTableInstance.getDefault().getTable("TigerLib").getSubTable("LoopTiming");
+            overrunPublisher = table.getIntegerTopic("overruns").publish();
+            lastOverrunPublisher = table.getStringTopic("last overrun").publish();
+            CommandScheduler.getInstance().getDefaultButtonLoop().bind(LoopTiming::poll);
+        }
+
+        for (LoopTimer timer : timers) {
+            if (timer.getName().equals(name)) {
+                return timer;
+            }
+        }
+
+        LoopTimer timer = new LoopTimer(name, table);
+        LoopTimer[] grown = Arrays.copyOf(timers, timers.length + 1);
+        grown[grown.length - 1] = timer;
+        timers = grown;
+        return timer;
+    }
+
+    /**
+     * Set how long a cycle may take before it counts as an overrun. Defaults to
+     * 21 ms, the 20 ms loop period plus 1 ms of scheduling jitter.
+     *
+     * @param seconds Overrun threshold in seconds
+     */
+    public static void setOverrunThreshold(double seconds) {
+        overrunThresholdNanos = (long) (seconds * 1e9);
+    }
+
+    /**
+     * Set how often stats are published. Defaults to 50 cycles, once a second.
+     *
+     * @param cycles Number of scheduler cycles between publishes
+     */
+    public static void setPublishPeriod(int cycles) {
+        if (cycles < 1) {
+            throw new IllegalArgumentException("Publish period must be at least 1 cycle");
+        }
+        publishPeriod = cycles;
+    }
+
+    /**
+     * Clear every timer's stats and the overrun counts, and forget the last
+     * cycle, so the next scenario in the same program starts fresh. Timers
+     * stay registered. Call between runs, not while the robot loop is running.
+     */
+    public static synchronized void reset() {
+        for (LoopTimer timer : timers) {
+            timer.reset();
+        }
+        cyclesSincePublish = 0;
+        lastPollNanos = 0;
+        overruns = 0;
+    }
+
+    /**
+     * @return The number of loop overruns seen
+     */
+    public static long getOverruns() {
+        return overruns;
+    }
+
+    private static void poll() {
+        long now = System.nanoTime();
+        if (lastPollNanos != 0 && now - lastPollNanos > overrunThresholdNanos) {
+            LoopTimer slowest = null;
+            for (LoopTimer timer : timers) {
+                if (timer.getCycleNanos() > 0
+                        && (slowest == null || timer.getCycleNanos() > slowest.getCycleNanos())) {
+                    slowest = timer;
+                }
+            }
+
+            overruns++;
+            // Don't blame a hook that only took a sliver of the cycle
+            if (slowest != null && slowest.getCycleNanos() * 10 >= overrunThresholdNanos) {
+                slowest.blameOverrun();
+                lastOverrunPublisher.set(slowest.getName());
+            } else {
+                lastOverrunPublisher.set("untimed code");
+            }
+        }
+        lastPollNanos = now;
+
+        for (LoopTimer timer : timers) {
+            timer.resetCycle();
+        }
+
+        if (++cyclesSincePublish >= publishPeriod) {
+            cyclesSincePublish = 0;
+            overrunPublisher.set(overruns);
+            for (LoopTimer timer : timers) {
+                timer.publish();
+            }
+        }
+    }
+}
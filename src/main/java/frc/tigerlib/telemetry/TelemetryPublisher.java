@@ -0,0 +1,258 @@
+package frc.tigerlib.telemetry;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Notifier;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Publishes values to NetworkTables from a background thread, so the robot
+ * loop only writes primitives.
+ *
+ * <p>
+ * Each value is registered once as a channel, which creates its NetworkTables
+ * publisher up front. Every cycle, the robot loop {@link #set(int, double)
+ * sets} channels and {@link #commit() commits} them. The background thread
+ * publishes the latest committed values at a decimated rate, 10 Hz by default,
+ * and only sends channels that changed by more than their epsilon since they
+ * were last sent.
+ *
+ * <p>
+ * Committed values are handed to the background thread through a sequence
+ * lock, so the robot loop never waits and never allocates. Channels must be
+ * registered, set and committed from one thread, usually the robot loop.
+ */
+public final class TelemetryPublisher implements AutoCloseable {
+    /**
+     * Called on the background thread after values are published.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param values The published value of each channel, valid only during
+         *               the call
+         */
+        void published(double[] values);
+    }
+
+    private static final double DEFAULT_PERIOD = 0.1;
+
+    private final String tableName;
+    private final NetworkTable table;
+    // Created by start(), so a publisher that never starts never has a thread
+    private Notifier notifier;
+    private final Object publishLock = new Object();
+
+    private int size_;
+    private double[] epsilons_ = new double[0];
+    private DoublePublisher[] doublePublishers_ = new DoublePublisher[0];
+    private BooleanPublisher[] booleanPublishers_ = new BooleanPublisher[0];
+    private Listener[] listeners_ = new Listener[0];
+
+    // Robot loop side
+    private double[] staging_ = new double[0];
+    // Handed over under the sequence lock, odd while a commit is in progress
+    private double[] shared_ = new double[0];
+    private volatile long sequence_;
+    // Background side
+    private double[] published_ = new double[0];
+    private double[] sent_ = new double[0];
+
+    private double period = DEFAULT_PERIOD;
+    private boolean running;
+
+    /**
+     * @param tableName NetworkTables path to publish under, e.g.
+     *                  "TigerLib/Drive"
+     */
+    public TelemetryPublisher(String tableName) {
+        this.tableName = tableName;
+        table = NetworkTableInstance.getDefault().getTable(tableName);
+    }
+
+    /**
+     * Register a number.
+     *
+     * @param name    Name of the entry
+     * @param epsilon Smallest change worth sending
+     * @return Channel index to pass to {@link #set(int, double)}
+     */
+    public int addDouble(String name, double epsilon) {
+        synchronized (publishLock) {
+            int channel = grow(epsilon);
+            doublePublishers_[channel] = table.getDoubleTopic(name).publish();
+            return channel;
+        }
+    }
+
+    /**
+     * Register a boolean, set as 1 for true and 0 for false.
+     *
+     * @param name Name of the entry
+     * @return Channel index to pass to {@link #set(int, boolean)}
+     */
+    public int addBoolean(String name) {
+        synchronized (publishLock) {
+            int channel = grow(0.0);
+            booleanPublishers_[channel] = table.getBooleanTopic(name).publish();
+            return channel;
+        }
+    }
+
+    /**
+     * Add a listener, such as one that updates a
+     * {@link edu.wpi.first.wpilibj.smartdashboard.Field2d}. It is called on the
+     * background thread whenever any channel was sent.
+     *
+     * @param listener Listener to add
+     */
+    public void addListener(Listener listener) {
+        synchronized (publishLock) {
+            listeners_ = Arrays.copyOf(listeners_, listeners_.length + 1);
+            listeners_[listeners_.length - 1] = listener;
+        }
+    }
+
+    private int grow(double epsilon) {
+        int channel = size_++;
+        epsilons_ = Arrays.copyOf(epsilons_, size_);
+        doublePublishers_ = Arrays.copyOf(doublePublishers_, size_);
+        booleanPublishers_ = Arrays.copyOf(booleanPublishers_, size_);
+        staging_ = Arrays.copyOf(staging_, size_);
+        shared_ = Arrays.copyOf(shared_, size_);
+        published_ = Arrays.copyOf(published_, size_);
+        sent_ = Arrays.copyOf(sent_, size_);
+
+        epsilons_[channel] = epsilon;
+        staging_[channel] = Double.NaN;
+        shared_[channel] = Double.NaN;
+        sent_[channel] = Double.NaN;
+        return channel;
+    }
+
+    /**
+     * Set a channel's value for the next commit.
+     *
+     * @param channel Index returned when the channel was added
+     * @param value   New value
+     */
+    public void set(int channel, double value) {
+        staging_[channel] = value;
+    }
+
+    /**
+     * Set a boolean channel's value for the next commit.
+     *
+     * @param channel Index returned by {@link #addBoolean(String)}
+     * @param value   New value
+     */
+    public void set(int channel, boolean value) {
+        staging_[channel] = value ? 1.0 : 0.0;
+    }
+
+    /** Hand the values set since the last commit to the background thread. */
+    public void commit() {
+        long sequence = sequence_;
+        sequence_ = sequence + 1;
+        VarHandle.storeStoreFence();
+
+        System.arraycopy(staging_, 0, shared_, 0, size_);
+
+        sequence_ = sequence + 2;
+    }
+
+    /**
+     * Set how often values are published. Defaults to 0.1 seconds.
+     *
+     * @param periodSeconds Time between publishes
+     */
+    public void setPeriod(double periodSeconds) {
+        synchronized (publishLock) {
+            period = periodSeconds;
+            if (running) {
+                notifier.startPeriodic(period);
+            }
+        }
+    }
+
+    /** Start publishing on the background thread. */
+    public void start() {
+        synchronized (publishLock) {
+            if (notifier == null) {
+                notifier = new Notifier(this::publish);
+                notifier.setName("Telemetry " + tableName);
+            }
+            running = true;
+            notifier.startPeriodic(period);
+        }
+    }
+
+    /** Stop publishing. */
+    public void stop() {
+        synchronized (publishLock) {
+            running = false;
+            if (notifier != null) {
+                notifier.stop();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Notifier closing;
+        synchronized (publishLock) {
+            running = false;
+            closing = notifier;
+            notifier = null;
+        }
+        if (closing != null) {
+            // Outside the lock, since closing waits for a publish in progress
+            closing.close();
+        }
+    }
+
+    private void publish() {
+        synchronized (publishLock) {
+            int size = size_;
+            while (true) {
+                long sequence = sequence_;
+                if ((sequence & 1L) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                System.arraycopy(shared_, 0, published_, 0, size);
+                VarHandle.loadLoadFence();
+                if (sequence == sequence_) {
+                    break;
+                }
+            }
+
+            boolean changed = false;
+            for (int channel = 0; channel < size; channel++) {
+                double value = published_[channel];
+                double last = sent_[channel];
+                if (Double.isNaN(value)
+                        || (!Double.isNaN(last) && Math.abs(value - last) <= epsilons_[channel])) {
+                    continue;
+                }
+
+                if (booleanPublishers_[channel] != null) {
+                    booleanPublishers_[channel].set(value != 0.0);
+                } else {
+                    doublePublishers_[channel].set(value);
+                }
+                sent_[channel] = value;
+                changed = true;
+            }
+
+            if (changed) {
+                for (Listener listener : listeners_) {
+                    listener.published(published_);
+                }
+            }
+        }
+    }
+}
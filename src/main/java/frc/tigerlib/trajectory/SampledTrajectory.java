@@ -0,0 +1,127 @@
+package frc.tigerlib.trajectory;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * A {@link Trajectory} resampled at a fixed time step into primitive arrays,
+ * one per field, so a state can be looked up by index arithmetic without
+ * searching or allocating.
+ *
+ * <p>
+ * Resampling allocates and calls {@link Trajectory#sample(double)} once per
+ * step, so do it ahead of time, e.g. when the command using it is created.
+ */
+public final class SampledTrajectory {
+    /** A mutable trajectory state, reused between samples. */
+    public static final class State {
+        /** Position along the field X axis, in meters. */
+        public double x;
+        /** Position along the field Y axis, in meters. */
+        public double y;
+        /** Direction of travel, in radians. */
+        public double heading;
+        /** Speed, in meters per second. */
+        public double velocity;
+        /** Acceleration, in meters per second squared. */
+        public double acceleration;
+        /** Curvature of the path, in radians per meter. */
+        public double curvature;
+    }
+
+    private final double step_;
+    private final double totalTime_;
+    private final int size_;
+    private final double[] x_;
+    private final double[] y_;
+    private final double[] heading_;
+    private final double[] velocity_;
+    private final double[] acceleration_;
+    private final double[] curvature_;
+
+    /**
+     * Resample a trajectory.
+     * 
+     * @param trajectory  Trajectory to resample
+     * @param stepSeconds Time between samples, e.g. 0.02 for the robot loop
+     */
+    public SampledTrajectory(Trajectory trajectory, double stepSeconds) {
+        if (!(stepSeconds > 0.0)) {
+            throw new IllegalArgumentException("Step must be positive");
+        }
+
+        step_ = stepSeconds;
+        totalTime_ = trajectory.getTotalTimeSeconds();
+        size_ = (int) Math.ceil(totalTime_ / stepSeconds) + 1;
+        x_ = new double[size_];
+        y_ = new double[size_];
+        heading_ = new double[size_];
+        velocity_ = new double[size_];
+        acceleration_ = new double[size_];
+        curvature_ = new double[size_];
+
+        for (int i = 0; i < size_; i++) {
+            Trajectory.State state = trajectory.sample(Math.min(i * stepSeconds, totalTime_));
+            x_[i] = state.poseMeters.getX();
+            y_[i] = state.poseMeters.getY();
+            heading_[i] = state.poseMeters.getRotation().getRadians();
+            velocity_[i] = state.velocityMetersPerSecond;
+            acceleration_[i] = state.accelerationMetersPerSecondSq;
+            curvature_[i] = state.curvatureRadPerMeter;
+        }
+    }
+
+    /**
+     * @return The duration of the trajectory, in seconds
+     */
+    public double getTotalTime() {
+        return totalTime_;
+    }
+
+    /**
+     * @return The time between samples, in seconds
+     */
+    public double getStep() {
+        return step_;
+    }
+
+    /**
+     * @return The number of samples
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Look up the state at a time, interpolated between the two nearest
+     * samples. Times outside the trajectory are clamped to its ends.
+     * 
+     * @param timeSeconds Time since the start of the trajectory
+     * @param out         State to store the result in
+     */
+    public void sample(double timeSeconds, State out) {
+        double time = Math.max(0.0, Math.min(timeSeconds, totalTime_));
+        double position = time / step_;
+        int lower = Math.min((int) position, size_ - 1);
+        int upper = Math.min(lower + 1, size_ - 1);
+        double t = position - lower;
+        if (upper == size_ - 1) {
+            // The last sample is at the end of the trajectory, usually less than
+            // a full step after the one before it
+            double lowerTime = lower * step_;
+            double interval = totalTime_ - lowerTime;
+            t = interval > 0.0 ? (time - lowerTime) / interval : 1.0;
+        }
+
+        out.x = lerp(x_[lower], x_[upper], t);
+        out.y = lerp(y_[lower], y_[upper], t);
+        out.heading = heading_[lower]
+                + Math.IEEEremainder(heading_[upper] - heading_[lower], 2.0 * Math.PI) * t;
+        out.velocity = lerp(velocity_[lower], velocity_[upper], t);
+        out.acceleration = lerp(acceleration_[lower], acceleration_[upper], t);
+        out.curvature = lerp(curvature_[lower], curvature_[upper], t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}